@@ -0,0 +1,198 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Configuration overlays of cells layered over the unit configuration.
+ * Overlays set by the program take precedence over the ones read from files, and are kept when
+ * {@link PluginConfig#CELL_CONFIG_DIR} changes. Overlays read from files remember the directory
+ * they came from and are read again once it has changed.
+ * The configuration resolved for a cell is cached together with the unit snapshot it was built on,
+ * so it is rebuilt only after either the unit configuration or the overlay of that cell has changed.
+ */
+final class CellOverlays {
+
+    static Logger log = LoggerFactory.getLogger(CellOverlays.class);
+
+    /** Cell names which can be mapped to an overlay file. */
+    private static final Pattern CELL_NAME = Pattern.compile("[a-zA-Z0-9][a-zA-Z0-9_-]{0,127}");
+
+    private static final Overlay EMPTY = new Overlay(Collections.emptyMap(), null);
+
+    /** Overlays set with {@link #put(String, Map)}. */
+    private final ConcurrentHashMap<String, Overlay> programmatic = new ConcurrentHashMap<>();
+
+    /** Overlays read from the files of {@link PluginConfig#CELL_CONFIG_DIR}. */
+    private final ConcurrentHashMap<String, Overlay> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the configuration of a cell. The overlay file is read on first use.
+     * @param cellName cell name
+     * @param base unit configuration
+     * @return configuration of the cell
+     */
+    CompiledConfig resolve(String cellName, CompiledConfig base) {
+        Overlay overlay = programmatic.get(cellName);
+        if (overlay == null) {
+            overlay = loaded(cellName, base);
+        }
+        return overlay.resolve(base);
+    }
+
+    /**
+     * Returns the overlay read from the file of a cell, reading it when it has not been read from
+     * the current directory yet. The file is read without holding a lock of the map, so that a slow
+     * file system delays only the callers of that cell; concurrent first reads may read it more than once.
+     */
+    private Overlay loaded(String cellName, CompiledConfig base) {
+        String dir = base.get(PluginConfig.CELL_CONFIG_DIR);
+        Overlay current = loaded.get(cellName);
+        if (current != null && Objects.equals(current.dir, dir)) {
+            return current;
+        }
+        Overlay fresh = new Overlay(read(cellName, base), dir);
+        if (current == null) {
+            Overlay raced = loaded.putIfAbsent(cellName, fresh);
+            if (raced != null && Objects.equals(raced.dir, dir)) {
+                return raced;
+            }
+        } else {
+            loaded.replace(cellName, current, fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Replaces the overlay of a cell set by the program. Other cells are not affected.
+     * @param cellName cell name
+     * @param values overlay values. Empty to remove the overlay, including the one of the file.
+     */
+    void put(String cellName, Map<String, String> values) {
+        if (values.isEmpty()) {
+            programmatic.put(cellName, EMPTY);
+            return;
+        }
+        programmatic.put(cellName, new Overlay(Collections.unmodifiableMap(new HashMap<>(values)), null));
+    }
+
+    /**
+     * Replaces the overlay of a cell read from its file.
+     * @param cellName cell name
+     * @param values overlay values read with {@link #read(String, CompiledConfig)}
+     * @param base unit configuration the values were read with
+     */
+    void putLoaded(String cellName, Map<String, String> values, CompiledConfig base) {
+        loaded.put(cellName, new Overlay(Collections.unmodifiableMap(new HashMap<>(values)),
+                base.get(PluginConfig.CELL_CONFIG_DIR)));
+    }
+
+    /**
+     * Forgets the overlays read from files so that they are read again on next use.
+     * Overlays set by the program are kept.
+     */
+    void clearLoaded() {
+        loaded.clear();
+    }
+
+    /**
+     * Reads the overlay file of a cell from the directory configured with {@link PluginConfig#CELL_CONFIG_DIR}.
+     * @param cellName cell name
+     * @param base unit configuration
+     * @return overlay values, empty if the cell has no overlay file or it cannot be read
+     */
+    static Map<String, String> read(String cellName, CompiledConfig base) {
+        String dir = base.get(PluginConfig.CELL_CONFIG_DIR);
+        if (dir == null || dir.trim().isEmpty() || !CELL_NAME.matcher(cellName).matches()) {
+            return Collections.emptyMap();
+        }
+        File file = new File(dir.trim(), cellName + ".properties");
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(file)) {
+            properties.load(is);
+        } catch (IOException e) {
+            log.info("Failed to read config overlay of cell " + cellName, e);
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
+        }
+        return values;
+    }
+
+    /**
+     * Overlay of a cell and the configuration last resolved with it.
+     */
+    private static final class Overlay {
+        private final Map<String, String> values;
+        /** Directory the overlay was read from, or null if it was set by the program. */
+        private final String dir;
+        private volatile Resolved resolved;
+
+        Overlay(Map<String, String> values, String dir) {
+            this.values = values;
+            this.dir = dir;
+        }
+
+        CompiledConfig resolve(CompiledConfig base) {
+            if (values.isEmpty()) {
+                return base;
+            }
+            Resolved current = resolved;
+            if (current != null && current.base == base) {
+                return current.config;
+            }
+            Map<String, String> merged = new HashMap<>(base.getValues());
+            merged.putAll(values);
+            CompiledConfig config = new CompiledConfig(Collections.unmodifiableMap(merged));
+            resolved = new Resolved(base, config);
+            return config;
+        }
+    }
+
+    /**
+     * Configuration of a cell and the unit snapshot it was built on.
+     */
+    private static final class Resolved {
+        private final CompiledConfig base;
+        private final CompiledConfig config;
+
+        Resolved(CompiledConfig base, CompiledConfig config) {
+            this.base = base;
+            this.config = config;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshot of the configuration with its values parsed in advance.
+ * An instance is built each time the configuration changes and never modified afterwards,
+ * so typed lookups are a single hash lookup without parsing or allocation.
+ */
+public final class CompiledConfig {
+
+    static Logger log = LoggerFactory.getLogger(CompiledConfig.class);
+
+    private final Map<String, String> values;
+    private final Map<String, Integer> ints = new HashMap<>();
+    private final Map<String, Boolean> booleans = new HashMap<>();
+    private final Map<String, Set<String>> trustedClientIds = new HashMap<>();
+    private final Set<String> trustAllProviders = new HashSet<>();
+    private final SortedSet<String> providers = new TreeSet<>();
+    private final ProxyDescriptor proxy;
+    private final ConcurrentHashMap<Object, Object> derived = new ConcurrentHashMap<>();
+    /** Keys whose value was read as an int but is not one. Each is logged once per snapshot. */
+    private final Set<String> invalidInts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     * @param values configuration values, which must not be modified afterwards
+     */
+    CompiledConfig(Map<String, String> values) {
+        this.values = values;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            compile(entry.getKey(), entry.getValue());
+        }
+        this.proxy = new ProxyDescriptor(values.get(PluginConfig.Proxy.HOST_NAME),
+                ints.getOrDefault(PluginConfig.Proxy.PORT_NUMBER, 0),
+                values.get(PluginConfig.Proxy.USER_NAME), values.get(PluginConfig.Proxy.USER_PSWD));
+    }
+
+    private void compile(String key, String value) {
+        if (StringUtils.isBlank(value)) {
+            return;
+        }
+        String trimmed = value.trim();
+        Integer number = parseInt(trimmed);
+        if (number != null) {
+            ints.put(key, number);
+        }
+        booleans.put(key, Boolean.valueOf(trimmed));
+        String oidc = PluginConfig.OIDC.OIDC;
+        if (!key.startsWith(oidc)) {
+            return;
+        }
+        int dot = key.indexOf('.', oidc.length());
+        if (dot > oidc.length()) {
+            providers.add(key.substring(oidc.length(), dot));
+        }
+        String suffix = PluginConfig.OIDC.TRUSTED_CLIENTIDS;
+        if (key.length() > oidc.length() + suffix.length() && key.endsWith(suffix)) {
+            String provider = key.substring(oidc.length(), key.length() - suffix.length());
+            //アスタリスクが指定されていたら無条件にtrue
+            if ("*".equals(value)) {
+                trustAllProviders.add(provider);
+                return;
+            }
+            Set<String> ids = new HashSet<>();
+            for (String id : value.split(" ")) {
+                if (!id.isEmpty()) {
+                    ids.add(id);
+                }
+            }
+            trustedClientIds.put(provider, Collections.unmodifiableSet(ids));
+        }
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return all values of this snapshot
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    /**
+     * @param key key
+     * @return value, or null if not set
+     */
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @param key key
+     * @param defaultValue value returned when the key is not set or not an int
+     * @return value as int
+     */
+    public int getInt(String key, int defaultValue) {
+        Integer value = ints.get(key);
+        if (value != null) {
+            return value;
+        }
+        // Whether a key holds an int is only known when it is read as one, so the check cannot move to compile()
+        if (booleans.containsKey(key) && invalidInts.add(key)) {
+            log.info("Invalid int value for " + key + ": " + values.get(key));
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @param key key
+     * @param defaultValue value returned when the key is not set
+     * @return value as boolean
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Boolean value = booleans.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether a client ID is trusted by an OpenID Connect provider.
+     * @param provider provider name
+     * @param clientId client ID
+     * @return true if the client ID is listed in the trusted client IDs of the provider, or they are "*"
+     */
+    public boolean isProviderClientIdTrusted(String provider, String clientId) {
+        if (trustAllProviders.contains(provider)) {
+            return true;
+        }
+        Set<String> ids = trustedClientIds.get(provider);
+        return ids != null && clientId != null && ids.contains(clientId);
+    }
+
+    /**
+     * @return names of the configured OpenID Connect providers in ascending order
+     */
+    public SortedSet<String> getProviders() {
+        return Collections.unmodifiableSortedSet(providers);
+    }
+
+    /**
+     * @return proxy settings
+     */
+    public ProxyDescriptor getProxy() {
+        return proxy;
+    }
+
+    /**
+     * Returns state derived from this snapshot, creating it on the first call.
+     * Expensive objects built from configuration values can be kept here,
+     * so that they are built again only after the configuration has changed.
+     * @param <T> type of the state
+     * @param key key of the state, typically the class which builds it
+     * @param factory function building the state from this snapshot
+     * @return derived state
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derive(Object key, Function<CompiledConfig, T> factory) {
+        Object value = derived.get(key);
+        if (value == null) {
+            value = derived.computeIfAbsent(key, k -> factory.apply(this));
+        }
+        return (T) value;
+    }
+
+    /**
+     * Proxy of outbound requests.
+     */
+    public static final class ProxyDescriptor {
+        private final String host;
+        private final int port;
+        private final String user;
+        private final String password;
+
+        ProxyDescriptor(String host, int port, String user, String password) {
+            this.host = StringUtils.trimToNull(host);
+            this.port = port;
+            this.user = StringUtils.trimToNull(user);
+            this.password = StringUtils.trimToNull(password);
+        }
+
+        /**
+         * @return true if both the host and a port are configured
+         */
+        public boolean isEnabled() {
+            return host != null && port > 0;
+        }
+
+        /**
+         * @return true if both the user and the password are configured
+         */
+        public boolean hasCredentials() {
+            return user != null && password != null;
+        }
+
+        /**
+         * @return host name without surrounding spaces, or null if not set
+         */
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * @return port number, or 0 if not set
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * @return user name, or null if not set
+         */
+        public String getUser() {
+            return user;
+        }
+
+        /**
+         * @return password, or null if not set
+         */
+        public String getPassword() {
+            return password;
+        }
+    }
+}
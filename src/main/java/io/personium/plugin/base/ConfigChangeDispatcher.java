@@ -0,0 +1,153 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers configuration changes to the registered listeners.
+ * Changes are compared and delivered on a single background thread, so publishing a new snapshot
+ * never waits for listeners and listeners see the changes in the order they were published.
+ */
+final class ConfigChangeDispatcher {
+
+    static Logger log = LoggerFactory.getLogger(ConfigChangeDispatcher.class);
+
+    private static final CopyOnWriteArrayList<Subscription> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    private static ExecutorService executor;
+
+    private ConfigChangeDispatcher() {
+    }
+
+    /**
+     * Registers a listener.
+     * @param pattern key, or key prefix ending with a dot
+     * @param listener listener
+     */
+    static void add(String pattern, ConfigChangeListener listener) {
+        SUBSCRIPTIONS.add(new Subscription(Objects.requireNonNull(pattern), Objects.requireNonNull(listener)));
+    }
+
+    /**
+     * Unregisters all subscriptions of a listener.
+     * @param listener listener
+     */
+    static void remove(ConfigChangeListener listener) {
+        SUBSCRIPTIONS.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Schedules the delivery of the differences between two snapshots.
+     * @param oldConfig snapshot replaced
+     * @param newConfig snapshot published
+     */
+    static void fire(CompiledConfig oldConfig, CompiledConfig newConfig) {
+        if (SUBSCRIPTIONS.isEmpty() || oldConfig == newConfig) {
+            return;
+        }
+        executor().execute(() -> dispatch(oldConfig, newConfig));
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "personium-config-listener");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static void dispatch(CompiledConfig oldConfig, CompiledConfig newConfig) {
+        SortedSet<String> changed = diff(oldConfig.getValues(), newConfig.getValues());
+        if (changed.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : SUBSCRIPTIONS) {
+            SortedSet<String> matched = subscription.filter(changed);
+            if (matched.isEmpty()) {
+                continue;
+            }
+            try {
+                subscription.listener.onChange(new ConfigChangeEvent(oldConfig, newConfig, matched));
+            } catch (RuntimeException e) {
+                log.info("Config change listener failed for " + matched, e);
+            }
+        }
+    }
+
+    private static SortedSet<String> diff(Map<String, String> oldValues, Map<String, String> newValues) {
+        SortedSet<String> changed = new TreeSet<>();
+        for (Map.Entry<String, String> entry : newValues.entrySet()) {
+            if (!entry.getValue().equals(oldValues.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : oldValues.keySet()) {
+            if (!newValues.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Listener and the keys it is interested in.
+     */
+    private static final class Subscription {
+        private final String pattern;
+        private final boolean prefix;
+        private final ConfigChangeListener listener;
+
+        Subscription(String pattern, ConfigChangeListener listener) {
+            this.pattern = pattern;
+            this.prefix = pattern.endsWith(".");
+            this.listener = listener;
+        }
+
+        SortedSet<String> filter(SortedSet<String> changed) {
+            if (!prefix) {
+                SortedSet<String> matched = new TreeSet<>();
+                if (changed.contains(pattern)) {
+                    matched.add(pattern);
+                }
+                return matched;
+            }
+            // Keys starting with the prefix are contiguous in the sorted set
+            SortedSet<String> matched = new TreeSet<>();
+            for (String key : changed.tailSet(pattern)) {
+                if (!key.startsWith(pattern)) {
+                    break;
+                }
+                matched.add(key);
+            }
+            return matched;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import java.util.Collections;
+import java.util.SortedSet;
+
+/**
+ * Configuration change delivered to a {@link ConfigChangeListener}.
+ * Only the keys matching the subscription of the listener are included.
+ */
+public final class ConfigChangeEvent {
+
+    private final CompiledConfig oldConfig;
+    private final CompiledConfig newConfig;
+    private final SortedSet<String> changedKeys;
+
+    ConfigChangeEvent(CompiledConfig oldConfig, CompiledConfig newConfig, SortedSet<String> changedKeys) {
+        this.oldConfig = oldConfig;
+        this.newConfig = newConfig;
+        this.changedKeys = Collections.unmodifiableSortedSet(changedKeys);
+    }
+
+    /**
+     * @return keys which were added, removed or changed, in ascending order
+     */
+    public SortedSet<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    /**
+     * @param key key
+     * @return value before the change, or null if it was not set
+     */
+    public String getOldValue(String key) {
+        return oldConfig.get(key);
+    }
+
+    /**
+     * @param key key
+     * @return value after the change, or null if it has been removed
+     */
+    public String getNewValue(String key) {
+        return newConfig.get(key);
+    }
+
+    /**
+     * @return configuration before the change
+     */
+    public CompiledConfig getOldConfig() {
+        return oldConfig;
+    }
+
+    /**
+     * @return configuration after the change
+     */
+    public CompiledConfig getNewConfig() {
+        return newConfig;
+    }
+}
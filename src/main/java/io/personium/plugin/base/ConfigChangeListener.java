@@ -0,0 +1,32 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+/**
+ * Listener of configuration changes registered with {@link PluginConfig#addChangeListener(String, ConfigChangeListener)}.
+ * Listeners are called on a background thread one at a time, in the order the changes were published.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+    /**
+     * Called after values the listener subscribed to have changed.
+     * @param event changed values
+     */
+    void onChange(ConfigChangeEvent event);
+}
@@ -0,0 +1,135 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches a configuration file and runs a callback once the file has stopped changing.
+ * Editors and deployment tools often write a file in several steps or replace it by a rename,
+ * so events are collected until none has arrived for the debounce period.
+ * Any event in the directory is considered, because the file may be a symbolic link whose target is
+ * swapped without an event on its own name, as with the {@code ..data} link of a Kubernetes ConfigMap volume.
+ * The callback runs only when the content read through the link differs from the last one seen.
+ */
+final class ConfigFileWatcher implements Closeable {
+
+    static Logger log = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+    private final Path file;
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final WatchService service;
+    private final Thread thread;
+    /** Digest of the content last seen, or null if the file could not be read. */
+    private byte[] lastDigest;
+
+    /**
+     * Constructor. Starts watching immediately.
+     * @param file file to watch
+     * @param debounceMillis quiet period in milliseconds before the callback runs
+     * @param onChange callback run on the watcher thread
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    ConfigFileWatcher(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        Path dir = this.file.getParent();
+        this.lastDigest = digest();
+        this.service = dir.getFileSystem().newWatchService();
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::run, "personium-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                drain(service.take());
+                WatchKey next = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                while (next != null) {
+                    drain(next);
+                    next = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                byte[] current = digest();
+                // A file missing in the middle of a swap is picked up by the events of the swap completing
+                if (current == null || Arrays.equals(current, lastDigest)) {
+                    continue;
+                }
+                lastDigest = current;
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    log.info("Failed to apply changes of " + file, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Stopped watching " + file);
+        }
+    }
+
+    /**
+     * Consumes the events of a key.
+     * @param key signalled key
+     */
+    private static void drain(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    /**
+     * Digests the content of the file, following symbolic links.
+     * @return digest, or null if the file cannot be read
+     */
+    private byte[] digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.info("Failed to read " + file + ". " + e.getMessage());
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+        thread.interrupt();
+    }
+}
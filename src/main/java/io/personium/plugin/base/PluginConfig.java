@@ -22,13 +22,22 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+
 /**
  * 設定情報を保持するクラス. このクラスからクラスパス上にある personium-unit-config.propertiesの内容にアクセスできます。
  */
@@ -69,10 +78,35 @@ public class PluginConfig {
      */
     public static final String PLUGIN_PATH = KEY_ROOT + "plugin.path";
 
+    /**
+     * personium-unit-config.propertiesの変更を監視して再読み込みするかどうかの設定キー.
+     */
+    public static final String CONFIG_WATCH = KEY_ROOT + "plugin.config.watch";
+
+    /**
+     * 設定ファイルの変更が収まってから再読み込みするまでの待ち時間(ミリ秒)の設定キー.
+     */
+    public static final String CONFIG_WATCH_DEBOUNCE = KEY_ROOT + "plugin.config.watch.debounce";
+
+    /**
+     * {@link #CONFIG_WATCH_DEBOUNCE}のデフォルト値.
+     */
+    public static final int DEFAULT_CONFIG_WATCH_DEBOUNCE = 500;
+
+    /**
+     * セルごとの設定ファイル(セル名.properties)を配置するディレクトリの設定キー.
+     */
+    public static final String CELL_CONFIG_DIR = KEY_ROOT + "plugin.config.cellDir";
+
     /**
      * Proxy関連の設定.
      */
     public static final class Proxy {
+        /**
+         * Proxy関連の設定キーのプレフィクス.
+         */
+        public static final String PROXY = KEY_ROOT + "proxy.";
+
         /**
          * PROXY ホスト名.
          */
@@ -94,6 +128,273 @@ public class PluginConfig {
         public static final String USER_PSWD = KEY_ROOT + "proxy.pswd";
     }
 
+    /**
+     * プラグインが共有する外部向けHTTPクライアントの設定.
+     */
+    public static final class Http {
+        /**
+         * HTTPクライアント関連の設定キーのプレフィクス.
+         */
+        public static final String HTTP = KEY_ROOT + "plugin.http.";
+
+        /**
+         * 外部向けリクエストのトランスポート. "apache"(文書キャッシュ付きHTTP/1.1)、"jdk"(HTTP/2)
+         * または{@link io.personium.plugin.base.utils.HttpTransport}実装のクラス名.
+         */
+        public static final String TRANSPORT = HTTP + "transport";
+
+        /**
+         * Apache HttpClientのトランスポートを選択する{@link #TRANSPORT}の値.
+         */
+        public static final String TRANSPORT_APACHE = "apache";
+
+        /**
+         * JDK HttpClientのトランスポートを選択する{@link #TRANSPORT}の値.
+         */
+        public static final String TRANSPORT_JDK = "jdk";
+
+        /**
+         * プールするコネクション数の合計の上限.
+         */
+        public static final String POOL_MAX_TOTAL = HTTP + "pool.maxTotal";
+
+        /**
+         * ルートごとにプールするコネクション数の上限.
+         */
+        public static final String POOL_MAX_PER_ROUTE = HTTP + "pool.maxPerRoute";
+
+        /**
+         * プール中のアイドルなコネクションを破棄するまでの秒数.
+         */
+        public static final String POOL_IDLE_TIMEOUT = HTTP + "pool.idleTimeout";
+
+        /**
+         * サーバが指定しない場合にコネクションを維持する最大秒数.
+         */
+        public static final String KEEP_ALIVE = HTTP + "pool.keepAlive";
+
+        /**
+         * 非同期リクエストを実行するスレッド数.
+         */
+        public static final String ASYNC_THREADS = HTTP + "async.threads";
+
+        /**
+         * スレッドを待つ非同期リクエスト数の上限.
+         */
+        public static final String ASYNC_QUEUE_SIZE = HTTP + "async.queueSize";
+
+        /**
+         * plugin-baseが解析するレスポンスボディの最大バイト数.
+         */
+        public static final String MAX_RESPONSE_SIZE = HTTP + "maxResponseSize";
+
+        /**
+         * HTTPキャッシュが保持する文書数の上限.
+         */
+        public static final String CACHE_MAX_ENTRIES = HTTP + "cache.maxEntries";
+
+        /**
+         * HTTPキャッシュが保持する文書の合計の最大バイト数.
+         */
+        public static final String CACHE_MAX_BYTES = HTTP + "cache.maxBytes";
+
+        /**
+         * キャッシュした文書を新鮮とみなす最小秒数.
+         * Cache-ControlやExpiresのない文書の有効期間にも使用します.
+         */
+        public static final String CACHE_MIN_TTL = HTTP + "cache.minTtl";
+
+        /**
+         * キャッシュした文書を新鮮とみなす最大秒数.
+         */
+        public static final String CACHE_MAX_TTL = HTTP + "cache.maxTtl";
+
+        /**
+         * バックグラウンドで再検証する間、期限切れの文書を返してよい秒数.
+         */
+        public static final String CACHE_STALE_WHILE_REVALIDATE = HTTP + "cache.staleWhileRevalidate";
+
+        /**
+         * 期限切れの文書をバックグラウンドで再検証するスレッド数.
+         */
+        public static final String CACHE_REVALIDATION_THREADS = HTTP + "cache.revalidationThreads";
+
+        /**
+         * 再起動をまたいでHTTPキャッシュを永続化するディレクトリ. 省略時はメモリ上にのみ保持します.
+         */
+        public static final String CACHE_DIR = HTTP + "cache.dir";
+
+        /**
+         * 永続化するHTTPキャッシュの最大バイト数.
+         */
+        public static final String CACHE_DISK_MAX_BYTES = HTTP + "cache.diskMaxBytes";
+
+        /**
+         * コネクションの確立を待つミリ秒数.
+         */
+        public static final String CONNECT_TIMEOUT = HTTP + "connectTimeout";
+
+        /**
+         * 確立したコネクションでデータを待つミリ秒数.
+         */
+        public static final String SOCKET_TIMEOUT = HTTP + "socketTimeout";
+
+        /**
+         * プールからコネクションを借りるまで待つミリ秒数.
+         */
+        public static final String CONNECTION_REQUEST_TIMEOUT = HTTP + "connectionRequestTimeout";
+
+        /**
+         * 失敗したGETリクエストを再試行する回数の上限.
+         */
+        public static final String RETRY_MAX = HTTP + "retry.max";
+
+        /**
+         * 再試行の間の指数バックオフの基準ミリ秒数.
+         */
+        public static final String RETRY_BASE_DELAY = HTTP + "retry.baseDelay";
+
+        /**
+         * 再試行の間のバックオフの最大ミリ秒数.
+         */
+        public static final String RETRY_MAX_DELAY = HTTP + "retry.maxDelay";
+
+        /**
+         * ホストへのサーキットを開くまでの連続失敗回数. 0の場合はサーキットブレーカーを無効にします.
+         */
+        public static final String BREAKER_FAILURE_THRESHOLD = HTTP + "breaker.failureThreshold";
+
+        /**
+         * 試行リクエストを通すまでサーキットを開いておくミリ秒数.
+         */
+        public static final String BREAKER_OPEN_DURATION = HTTP + "breaker.openDuration";
+
+        /**
+         * ホストごとのHTTPメトリクスをプラットフォームMBeanServerに登録するかどうか.
+         */
+        public static final String METRICS_JMX = HTTP + "metrics.jmx";
+
+        /**
+         * 設定されたOIDCプロバイダのディスカバリ文書とJWKSをバックグラウンドで取得するかどうか.
+         */
+        public static final String PREFETCH_ENABLED = HTTP + "prefetch.enabled";
+
+        /**
+         * 先読みした文書をバックグラウンドで更新する間隔の最大秒数.
+         * 文書はキャッシュの有効期間の80%、有効期間が不明な場合は{@link #CACHE_MIN_TTL}の80%で更新され、
+         * 指定した場合はこの値がその間隔の上限になります.
+         */
+        public static final String PREFETCH_INTERVAL = HTTP + "prefetch.interval";
+
+        /** {@link #POOL_MAX_TOTAL}のデフォルト値. */
+        public static final int DEFAULT_POOL_MAX_TOTAL = 50;
+        /** {@link #POOL_MAX_PER_ROUTE}のデフォルト値. */
+        public static final int DEFAULT_POOL_MAX_PER_ROUTE = 10;
+        /** {@link #POOL_IDLE_TIMEOUT}のデフォルト値. */
+        public static final int DEFAULT_POOL_IDLE_TIMEOUT = 30;
+        /** {@link #KEEP_ALIVE}のデフォルト値. */
+        public static final int DEFAULT_KEEP_ALIVE = 60;
+        /** {@link #ASYNC_THREADS}のデフォルト値. */
+        public static final int DEFAULT_ASYNC_THREADS = 16;
+        /** {@link #ASYNC_QUEUE_SIZE}のデフォルト値. */
+        public static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+        /** {@link #MAX_RESPONSE_SIZE}のデフォルト値. */
+        public static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024;
+        /** {@link #CONNECT_TIMEOUT}のデフォルト値. */
+        public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+        /** {@link #SOCKET_TIMEOUT}のデフォルト値. */
+        public static final int DEFAULT_SOCKET_TIMEOUT = 10000;
+        /** {@link #CONNECTION_REQUEST_TIMEOUT}のデフォルト値. */
+        public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 3000;
+        /** {@link #RETRY_MAX}のデフォルト値. */
+        public static final int DEFAULT_RETRY_MAX = 2;
+        /** {@link #RETRY_BASE_DELAY}のデフォルト値. */
+        public static final int DEFAULT_RETRY_BASE_DELAY = 100;
+        /** {@link #RETRY_MAX_DELAY}のデフォルト値. */
+        public static final int DEFAULT_RETRY_MAX_DELAY = 2000;
+        /** {@link #BREAKER_FAILURE_THRESHOLD}のデフォルト値. */
+        public static final int DEFAULT_BREAKER_FAILURE_THRESHOLD = 5;
+        /** {@link #BREAKER_OPEN_DURATION}のデフォルト値. */
+        public static final int DEFAULT_BREAKER_OPEN_DURATION = 30000;
+        /** {@link #METRICS_JMX}のデフォルト値. */
+        public static final boolean DEFAULT_METRICS_JMX = true;
+        /** {@link #PREFETCH_ENABLED}のデフォルト値. */
+        public static final boolean DEFAULT_PREFETCH_ENABLED = false;
+        /** {@link #CACHE_MAX_ENTRIES}のデフォルト値. */
+        public static final int DEFAULT_CACHE_MAX_ENTRIES = 1000;
+        /** {@link #CACHE_MAX_BYTES}のデフォルト値. */
+        public static final int DEFAULT_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+        /** {@link #CACHE_MIN_TTL}のデフォルト値. */
+        public static final int DEFAULT_CACHE_MIN_TTL = 60;
+        /** {@link #CACHE_MAX_TTL}のデフォルト値. */
+        public static final int DEFAULT_CACHE_MAX_TTL = 24 * 60 * 60;
+        /** {@link #CACHE_STALE_WHILE_REVALIDATE}のデフォルト値. */
+        public static final int DEFAULT_CACHE_STALE_WHILE_REVALIDATE = 300;
+        /** {@link #CACHE_REVALIDATION_THREADS}のデフォルト値. */
+        public static final int DEFAULT_CACHE_REVALIDATION_THREADS = 2;
+        /** {@link #CACHE_DISK_MAX_BYTES}のデフォルト値. */
+        public static final int DEFAULT_CACHE_DISK_MAX_BYTES = 64 * 1024 * 1024;
+
+        private Http() {
+        }
+    }
+
+    /**
+     * JSON解析の設定.
+     */
+    public static final class Json {
+        /**
+         * 使用する{@link io.personium.plugin.base.json.JsonProvider}の名前またはクラス名.
+         * 省略時は登録されたプロバイダのうち優先度が最も高いものを使用します.
+         */
+        public static final String PROVIDER = KEY_ROOT + "plugin.json.provider";
+
+        private Json() {
+        }
+    }
+
+    /**
+     * 認証プラグインによるトークン処理の設定.
+     */
+    public static final class Auth {
+        /**
+         * 認証関連の設定キーのプレフィクス.
+         */
+        static final String AUTH = KEY_ROOT + "plugin.auth.";
+
+        /**
+         * トークンキャッシュが保持する解析済みトークン数の上限.
+         */
+        public static final String TOKEN_CACHE_MAX_ENTRIES = AUTH + "tokenCache.maxEntries";
+
+        /**
+         * 未知のkidを契機とする発行者のJWK Setの再取得の最小間隔(ミリ秒).
+         */
+        public static final String JWKS_MIN_REFRESH_INTERVAL = AUTH + "jwks.minRefreshInterval";
+
+        /**
+         * expおよびnbfクレームの検証で許容する時刻のずれ(秒).
+         */
+        public static final String CLOCK_SKEW = AUTH + "clockSkew";
+
+        /**
+         * リプレイキャッシュが保持するjtiやnonceなどの使い捨て識別子数の上限.
+         */
+        public static final String REPLAY_CACHE_MAX_ENTRIES = AUTH + "replayCache.maxEntries";
+
+        /** {@link #TOKEN_CACHE_MAX_ENTRIES}のデフォルト値. */
+        public static final int DEFAULT_TOKEN_CACHE_MAX_ENTRIES = 10000;
+        /** {@link #JWKS_MIN_REFRESH_INTERVAL}のデフォルト値. */
+        public static final int DEFAULT_JWKS_MIN_REFRESH_INTERVAL = 30000;
+        /** {@link #CLOCK_SKEW}のデフォルト値. */
+        public static final int DEFAULT_CLOCK_SKEW = 60;
+        /** {@link #REPLAY_CACHE_MAX_ENTRIES}のデフォルト値. */
+        public static final int DEFAULT_REPLAY_CACHE_MAX_ENTRIES = 1000000;
+
+        private Auth() {
+        }
+    }
+
     /**
      * OpenID Connect用の設定.
      */
@@ -108,6 +409,16 @@ public class PluginConfig {
          */
         public static final String TRUSTED_CLIENTIDS = ".trustedClientIds";
 
+        /**
+         * プロバイダのOpenID Provider Configuration文書のURL.
+         */
+        public static final String DISCOVERY_URL = ".discoveryUrl";
+
+        /**
+         * プロバイダのJWK SetのURL. 省略時はディスカバリ文書から取得します.
+         */
+        public static final String JWKS_URL = ".jwksUrl";
+
         /**
          * 引数のClientIDがこのユニットが信頼するリストに含まれるかどうか判定する.
          * @param provider String
@@ -115,9 +426,26 @@ public class PluginConfig {
          * @return boolean 含まれる場合：True
          */
         public static boolean isProviderClientIdTrusted(String provider, String clientId) {
-            String val = get(OIDC + provider + TRUSTED_CLIENTIDS);
-            //アスタリスクが指定されていたら無条件にtrue
-            return isAstarisk(val) || isSpaceSeparatedValueIncluded(val, clientId);
+            return getCompiled().isProviderClientIdTrusted(provider, clientId);
+        }
+
+        /**
+         * 引数のClientIDが指定したセルで信頼するリストに含まれるかどうか判定する.
+         * @param cellName セル名
+         * @param provider String
+         * @param clientId ClientID
+         * @return boolean 含まれる場合：True
+         */
+        public static boolean isProviderClientIdTrusted(String cellName, String provider, String clientId) {
+            return forCell(cellName).isProviderClientIdTrusted(provider, clientId);
+        }
+
+        /**
+         * 設定されているOpenID Connectプロバイダ名の一覧を取得する.
+         * @return プロバイダ名
+         */
+        public static Set<String> getProviders() {
+            return new TreeSet<>(getCompiled().getProviders());
         }
     }
 
@@ -132,79 +460,145 @@ public class PluginConfig {
     private static PluginConfig singleton = new PluginConfig();
 
     /**
-     * 設定値を格納するプロパティ実体.
+     * 設定ファイルの監視.
+     */
+    private static ConfigFileWatcher watcher;
+
+    static {
+        if (getBoolean(CONFIG_WATCH, false)) {
+            startWatching();
+        }
+    }
+
+    /**
+     * personium-unit-config-default.propertiesの設定値.
      */
-    private final Properties props = new Properties();
+    private Map<String, String> defaults = Collections.emptyMap();
 
     /**
-     * オーバーライドする設定値を格納するプロパティ実体.
+     * オーバーライドする設定値.
      */
-    private final Properties propsOverride = new Properties();
+    private Map<String, String> overrides = Collections.emptyMap();
+
+    /**
+     * {@link #set(String, String)}で変更された設定値. 再読み込み後も維持する.
+     */
+    private Map<String, String> runtimeOverrides = Collections.emptyMap();
+
+    /**
+     * 現在の設定値のスナップショット. 変更不可で、更新時は新しく構築したものに差し替える.
+     * 読み込みはロックを取らずにこの参照を辿るだけで行う.
+     */
+    private volatile CompiledConfig snapshot = new CompiledConfig(Collections.emptyMap());
+
+    /**
+     * セルごとの設定.
+     */
+    private final CellOverlays cellOverlays = new CellOverlays();
 
     /**
      * protectedなコンストラクタ.
      */
     protected PluginConfig() {
-        this.doReload();
+        this.doReload(false);
     }
 
     /**
      * 設定のリロード.
+     * 新しい設定値は1つのスナップショットとして差し替えるため、読み込み中の値が参照されることはない.
+     * @param validate 検証に失敗した場合に差し替えを中止するかどうか
+     * @return 差し替えた場合true
      */
-    private synchronized void doReload() {
+    private synchronized boolean doReload(boolean validate) {
         Logger log = LoggerFactory.getLogger(PluginConfig.class);
         Properties properties = getUnitConfigDefaultProperties();
-        Properties propertiesOverride = getPersoniumConfigProperties();
+        Properties propertiesOverride = readPersoniumConfigProperties();
         // 読み込みに成功した場合、メンバ変数へ置換する
+        Map<String, String> nextDefaults = this.defaults;
         if (!properties.isEmpty()) {
-            this.props.clear();
-            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-                if (!(entry.getKey() instanceof String)) {
-                    continue;
-                }
-                this.props.setProperty((String) entry.getKey(), (String) entry.getValue());
-            }
+            nextDefaults = toMap(properties);
+        }
+        // 空のファイルはオーバーライドの解除として扱う. 読み込めなかった場合は再読み込み時のみ公開を中止する
+        Map<String, String> nextOverrides = this.overrides;
+        if (propertiesOverride != null) {
+            nextOverrides = toMap(propertiesOverride);
+        } else if (validate) {
+            log.info("Config was not reloaded because personium-unit-config.properties could not be read.");
+            return false;
         }
-        if (!propertiesOverride.isEmpty()) {
-            this.propsOverride.clear();
-            for (Map.Entry<Object, Object> entry : propertiesOverride.entrySet()) {
-                if (!(entry.getKey() instanceof String)) {
-                    continue;
-                }
-                this.propsOverride.setProperty((String) entry.getKey(), (String) entry.getValue());
+        Map<String, String> merged = new HashMap<>(nextDefaults);
+        for (Map.Entry<String, String> entry : nextOverrides.entrySet()) {
+            log.debug("Overriding Config " + entry.getKey() + "=" + entry.getValue());
+            merged.put(entry.getKey(), entry.getValue());
+        }
+        merged.putAll(this.runtimeOverrides);
+        if (validate) {
+            List<String> errors = validate(nextDefaults, merged);
+            if (!errors.isEmpty()) {
+                log.info("Config was not reloaded because of invalid values: " + errors);
+                return false;
             }
         }
-        for (Object keyObj : propsOverride.keySet()) {
-            String key = (String) keyObj;
-            String value = this.propsOverride.getProperty(key);
-            if (value == null) {
+        this.defaults = nextDefaults;
+        this.overrides = nextOverrides;
+        publish(new CompiledConfig(Collections.unmodifiableMap(merged)));
+        return true;
+    }
+
+    /**
+     * 設定値を検証する.
+     * デフォルト値が数値または真偽値のキーは同じ型の値であること、プロキシのポート番号は数値であることを確認する.
+     * @param defaultValues デフォルト値
+     * @param values 検証する設定値
+     * @return 不正な設定値の一覧
+     */
+    private static List<String> validate(Map<String, String> defaultValues, Map<String, String> values) {
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, String> entry : defaultValues.entrySet()) {
+            String value = values.get(entry.getKey());
+            if (value == null || value.equals(entry.getValue())) {
                 continue;
             }
-            log.debug("Overriding Config " + key + "=" + value);
-            this.props.setProperty(key, value);
+            if (isNumber(entry.getValue()) && !isNumber(value)
+                    || isBooleanLiteral(entry.getValue()) && !isBooleanLiteral(value)) {
+                errors.add(entry.getKey() + "=" + value);
+            }
         }
+        String port = values.get(Proxy.PORT_NUMBER);
+        if (StringUtils.isNotEmpty(port) && !isNumber(port)) {
+            errors.add(Proxy.PORT_NUMBER + "=" + port);
+        }
+        return errors;
     }
 
-    private static boolean isSpaceSeparatedValueIncluded(String spaceSeparatedValue, String testValue) {
-        if (testValue == null || spaceSeparatedValue == null) {
+    private static boolean isNumber(String value) {
+        try {
+            Long.parseLong(value.trim());
+            return true;
+        } catch (NumberFormatException e) {
             return false;
         }
-        String[] values = spaceSeparatedValue.split(" ");
-        for (String val : values) {
-            if (testValue.equals(val)) {
-                return true;
-            }
-        }
-        return false;
     }
 
-    private static boolean isAstarisk(String val) {
-        if (val == null) {
-            return false;
-        } else if ("*".equals(val)) {
-                return true;
+    private static boolean isBooleanLiteral(String value) {
+        String trimmed = value.trim();
+        return "true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed);
+    }
+
+    /**
+     * Propertiesの文字列のエントリを変更不可のMapに変換する.
+     * @param properties プロパティ
+     * @return 変換したMap
+     */
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof String)) {
+                continue;
+            }
+            map.put((String) entry.getKey(), (String) entry.getValue());
         }
-        return false;
+        return Collections.unmodifiableMap(map);
     }
 
     /**
@@ -231,29 +625,39 @@ public class PluginConfig {
 
     /**
      * personium-unit-config.propertiesファイルを読み込む.
-     * @return personium-unit-config.properties
+     * @return personium-unit-config.properties. 読み込めなかった場合は空
      */
     protected Properties getPersoniumConfigProperties() {
+        Properties propertiesOverride = readPersoniumConfigProperties();
+        if (propertiesOverride == null) {
+            return new Properties();
+        }
+        return propertiesOverride;
+    }
+
+    /**
+     * personium-unit-config.propertiesファイルを読み込む.
+     * ファイルが指定されておらずクラスパス上にも存在しない場合は、オーバーライドがないものとして空を返す.
+     * @return personium-unit-config.properties. 指定されたファイルが存在しない場合、または読み込みに失敗した場合はnull
+     */
+    protected Properties readPersoniumConfigProperties() {
         Logger log = LoggerFactory.getLogger(PluginConfig.class);
-        Properties propertiesOverride = new Properties();
         String configFilePath = System.getProperty(KEY_CONFIG_FILE);
         InputStream is = getConfigFileInputStream(configFilePath);
-        try {
-            if (is != null) {
-                propertiesOverride.load(is);
-            } else {
-                log.debug("[personium-unit-config.properties] file not found on the classpath. using default config.");
+        if (is == null) {
+            if (configFilePath != null) {
+                log.info("[personium-unit-config.properties] file not found: " + configFilePath);
+                return null;
             }
+            log.debug("[personium-unit-config.properties] file not found on the classpath. using default config.");
+            return new Properties();
+        }
+        Properties propertiesOverride = new Properties();
+        try (InputStream in = is) {
+            propertiesOverride.load(in);
         } catch (IOException e) {
-            log.debug("IO Exception when loading [personium-unit-config.properties] file.");
-        } finally {
-            try {
-                if (is != null) {
-                    is.close();
-                }
-            } catch (IOException e) {
-                log.debug("IO Exception when closing [personium-unit-config.properties] file.");
-            }
+            log.info("IO Exception when loading [personium-unit-config.properties] file. " + e.getMessage());
+            return null;
         }
         return propertiesOverride;
     }
@@ -292,7 +696,7 @@ public class PluginConfig {
      * @return 設定値
      */
     private String doGet(final String key) {
-        return props.getProperty(key);
+        return snapshot.get(key);
     }
 
     /**
@@ -300,16 +704,179 @@ public class PluginConfig {
      * @param key キー
      * @param value 値
      */
-    private void doSet(final String key, final String value) {
-        props.setProperty(key, value);
+    private synchronized void doSet(final String key, final String value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Map<String, String> runtime = new HashMap<>(runtimeOverrides);
+        runtime.put(key, value);
+        runtimeOverrides = runtime;
+        Map<String, String> copy = new HashMap<>(snapshot.getValues());
+        copy.put(key, value);
+        publish(new CompiledConfig(Collections.unmodifiableMap(copy)));
+    }
+
+    /**
+     * 新しいスナップショットに差し替え、変更をリスナーに通知する.
+     * @param next 新しいスナップショット
+     */
+    private void publish(CompiledConfig next) {
+        CompiledConfig previous = this.snapshot;
+        this.snapshot = next;
+        if (!Objects.equals(previous.get(CELL_CONFIG_DIR), next.get(CELL_CONFIG_DIR))) {
+            cellOverlays.clearLoaded();
+        }
+        ConfigChangeDispatcher.fire(previous, next);
+    }
+
+    /**
+     * セルの設定ファイルを再読み込みする.
+     * @param cellName セル名
+     * @return 検証に成功して差し替えた場合true
+     */
+    private synchronized boolean doReloadCell(final String cellName) {
+        CompiledConfig base = this.snapshot;
+        Map<String, String> overlay = CellOverlays.read(cellName, base);
+        Map<String, String> merged = new HashMap<>(base.getValues());
+        merged.putAll(overlay);
+        List<String> errors = validate(this.defaults, merged);
+        if (!errors.isEmpty()) {
+            LoggerFactory.getLogger(PluginConfig.class).info(
+                    "Config of cell " + cellName + " was not reloaded because of invalid values: " + errors);
+            return false;
+        }
+        cellOverlays.putLoaded(cellName, overlay, base);
+        return true;
+    }
+
+    /**
+     * セルの設定値を解析済みの形で取得します.
+     * ユニットの設定値に、{@link #CELL_CONFIG_DIR}に置かれたセルの設定ファイルまたは
+     * {@link #setCellOverlay(String, Map)}で設定した値を重ねたものを返します.
+     * 結果はユニットの設定値が変更されるまでキャッシュされます.
+     * @param cellName セル名. nullの場合はユニットの設定値を返します.
+     * @return セルの設定値
+     */
+    public static CompiledConfig forCell(final String cellName) {
+        CompiledConfig base = getCompiled();
+        if (cellName == null) {
+            return base;
+        }
+        return singleton.cellOverlays.resolve(cellName, base);
+    }
+
+    /**
+     * セルの設定ファイルを再読み込みします. 他のセルの設定値には影響しません.
+     * @param cellName セル名
+     * @return 検証に成功して新しい設定値を公開した場合true
+     */
+    public static boolean reloadCell(final String cellName) {
+        return singleton.doReloadCell(Objects.requireNonNull(cellName));
+    }
+
+    /**
+     * セルの設定値を指定します. 設定ファイルの内容より優先され、{@link #CELL_CONFIG_DIR}が変更されても維持されます.
+     * @param cellName セル名
+     * @param values ユニットの設定値に重ねる値. 空の場合はセルの設定値を解除します.
+     */
+    public static void setCellOverlay(final String cellName, final Map<String, String> values) {
+        singleton.cellOverlays.put(Objects.requireNonNull(cellName), values);
+    }
+
+    /**
+     * 設定値の変更を通知するリスナーを登録します.
+     * ドットで終わる文字列を指定した場合はそのプレフィクスを持つキー、それ以外の場合は一致するキーの変更が通知されます.
+     * 通知はバックグラウンドのスレッドから、値が実際に変わった場合のみ行われます.
+     * @param keyOrPrefix 設定キーまたはプレフィクス (例: {@link OIDC#OIDC})
+     * @param listener リスナー
+     */
+    public static void addChangeListener(final String keyOrPrefix, final ConfigChangeListener listener) {
+        ConfigChangeDispatcher.add(keyOrPrefix, listener);
+    }
+
+    /**
+     * 登録したリスナーを解除します.
+     * @param listener リスナー
+     */
+    public static void removeChangeListener(final ConfigChangeListener listener) {
+        ConfigChangeDispatcher.remove(listener);
+    }
+
+    /**
+     * personium-unit-config.propertiesを再読み込みします.
+     * 検証に成功した場合のみ新しい設定値を公開します. {@link #set(String, String)}で変更した値は維持されます.
+     * ファイルが空の場合はオーバーライドを解除し、ファイルが存在しないか読み込めない場合は現在の設定値を維持します.
+     * @return 新しい設定値を公開した場合true
+     */
+    public static boolean reload() {
+        return singleton.doReload(true);
+    }
+
+    /**
+     * システムプロパティ io.personium.configurationFile で指定された設定ファイルの監視を開始します.
+     * ファイルが変更されると、変更が{@link #CONFIG_WATCH_DEBOUNCE}の間収まってから{@link #reload()}します.
+     * @return 監視している場合true
+     */
+    public static synchronized boolean startWatching() {
+        Logger log = LoggerFactory.getLogger(PluginConfig.class);
+        if (watcher != null) {
+            return true;
+        }
+        String configFilePath = System.getProperty(KEY_CONFIG_FILE);
+        if (configFilePath == null) {
+            log.info("Config file is not watched because " + KEY_CONFIG_FILE + " is not set.");
+            return false;
+        }
+        try {
+            watcher = new ConfigFileWatcher(Paths.get(configFilePath),
+                    getInt(CONFIG_WATCH_DEBOUNCE, DEFAULT_CONFIG_WATCH_DEBOUNCE), PluginConfig::reload);
+        } catch (IOException | RuntimeException e) {
+            log.info("Failed to watch " + configFilePath, e);
+            return false;
+        }
+        log.info("Watching " + configFilePath + " for changes.");
+        return true;
+    }
+
+    /**
+     * 設定ファイルの監視を終了します.
+     */
+    public static synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            LoggerFactory.getLogger(PluginConfig.class).info("Failed to stop watching config file.", e);
+        }
+        watcher = null;
     }
 
     /**
      * すべてのプロパティを取得します。
+     * 返却されるのは現在の設定値の複製で、変更しても設定には反映されません。変更には{@link #set(String, String)}を使用してください.
      * @return プロパティ一覧オブジェクト
      */
     public static Properties getProperties() {
-        return singleton.props;
+        Properties properties = new Properties();
+        properties.putAll(singleton.snapshot.getValues());
+        return properties;
+    }
+
+    /**
+     * すべての設定値を変更不可のMapで取得します. 複製を伴わず、取得時点のスナップショットを返します.
+     * @return 設定値のスナップショット
+     */
+    public static Map<String, String> getSnapshot() {
+        return singleton.snapshot.getValues();
+    }
+
+    /**
+     * 現在の設定値を解析済みの形で取得します. 設定値が変更されるたびに新しいインスタンスが構築されます.
+     * @return 解析済みの設定値
+     */
+    public static CompiledConfig getCompiled() {
+        return singleton.snapshot;
     }
 
     /**
@@ -321,6 +888,26 @@ public class PluginConfig {
         return singleton.doGet(key);
     }
 
+    /**
+     * Key文字列を指定して設定情報をintで取得します.
+     * @param key 設定キー
+     * @param defaultValue 未設定または不正な値の場合に返す値
+     * @return 設定値
+     */
+    public static int getInt(final String key, final int defaultValue) {
+        return getCompiled().getInt(key, defaultValue);
+    }
+
+    /**
+     * Key文字列を指定して設定情報をbooleanで取得します.
+     * @param key 設定キー
+     * @param defaultValue 未設定の場合に返す値
+     * @return 設定値
+     */
+    public static boolean getBoolean(final String key, final boolean defaultValue) {
+        return getCompiled().getBoolean(key, defaultValue);
+    }
+
     /**
      * Key文字列を指定して設定情報を変更します.
      * @param key 設定キー
@@ -378,11 +965,7 @@ public class PluginConfig {
      * @return $proxyホスト番号.
      */
     public static int getProxyHostNumber() {
-        String port = get(Proxy.PORT_NUMBER);
-        if (StringUtils.isNotEmpty(port)) {
-            return Integer.parseInt(port);
-        }
-        return 0;
+        return getCompiled().getProxy().getPort();
     }
 
     /**
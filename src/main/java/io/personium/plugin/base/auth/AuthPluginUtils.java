@@ -17,10 +17,7 @@
  */
 package io.personium.plugin.base.auth;
 
-import java.nio.charset.StandardCharsets;
-
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import io.personium.plugin.base.utils.PluginUtils;
@@ -35,14 +32,16 @@ public final class AuthPluginUtils {
 
     /**
      * tokenToJSON.
-     * @param token String
+     * JWT全体を扱う場合は、分割やコピーを行わない{@link JwtReader}を用いる.
+     * expクレームを持つセグメントのパース結果は、期限まで{@link TokenCache#getDefault()}にキャッシュされる.
+     * @param token base64urlエンコードされたJWTのセグメント
      * @return JSONObject
      * @throws ParseException ParseException
      */
     public static JSONObject tokenToJSON(String token) throws ParseException {
-        JSONObject ret = null;
-        String decoded = new String(PluginUtils.decodeBase64Url(token), StandardCharsets.UTF_8);
-        ret = (JSONObject) new JSONParser().parse(decoded);
-        return ret;
+        return TokenCache.getDefault().get(token, () -> {
+            byte[] decoded = PluginUtils.decodeBase64Url(token);
+            return JwtReader.toJSON(decoded, 0, decoded.length);
+        });
     }
 }
@@ -0,0 +1,94 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+/**
+ * Count-min sketch which estimates how often a key has been seen, using 4-bit counters.
+ * All counters are halved periodically so that the estimate favours recent popularity.
+ * Not thread safe.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int MIN_WIDTH = 16;
+    private static final int SAMPLE_FACTOR = 10;
+    private static final int HALF_SHIFT = 32;
+    private static final long[] SEEDS = {
+        0x97CB3127F5A26A9DL, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x9E3779B97F4A7C15L};
+
+    private final byte[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor.
+     * @param capacity expected number of distinct keys
+     */
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(MIN_WIDTH, capacity - 1) << 1);
+        this.table = new byte[width * DEPTH];
+        this.mask = width - 1;
+        this.sampleSize = Math.max(1, capacity) * SAMPLE_FACTOR;
+    }
+
+    /**
+     * Records an occurrence of a key.
+     * @param hash hash of the key
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of occurrences of a key.
+     * @param hash hash of the key
+     * @return estimated frequency
+     */
+    int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table[index(hash, row)]);
+        }
+        return min;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        int slot = (int) (h ^ (h >>> HALF_SHIFT)) & mask;
+        return row * (mask + 1) + slot;
+    }
+}
@@ -0,0 +1,594 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Lazy view of the claims of a JWT payload.
+ * The payload is scanned once to locate the top level members, and the value of a claim is decoded only when
+ * it is requested, so that reading a few claims does not build a map with boxed values of every claim.
+ * Nested objects and arrays are skipped without being parsed.
+ * Payloads with duplicate member names are rejected, so that a claim read here can never differ
+ * from the one a JSON parser would pick, and escapes in strings are validated while scanning.
+ */
+public final class JwtClaims {
+
+    /** Number of ints per member in the index: key start, key end, value start, value end. */
+    private static final int SLOTS = 4;
+    private static final int VALUE_START = 2;
+    private static final int VALUE_END = 3;
+    private static final int INITIAL_MEMBERS = 16;
+    private static final int RADIX = 10;
+    private static final int HEX_RADIX = 16;
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    /** Up to this number of members, duplicate names are looked for by comparing every pair. */
+    private static final int PAIRWISE_DUPLICATE_CHECK_MAX = 16;
+
+    private final byte[] json;
+    private final int[] index;
+    private final int members;
+
+    private JwtClaims(byte[] json, int[] index, int members) {
+        this.json = json;
+        this.index = index;
+        this.members = members;
+    }
+
+    /**
+     * Reads the claims of a token.
+     * @param token compact serialized JWT
+     * @return claims
+     * @throws ParseException if the token or its payload is malformed
+     */
+    public static JwtClaims of(CharSequence token) throws ParseException {
+        return JwtReader.of(token).claims();
+    }
+
+    /**
+     * Scans a decoded payload. The bytes are copied, so the buffer may be reused afterwards.
+     * @param payload decoded payload
+     * @return claims
+     * @throws ParseException if the payload is not a JSON object
+     */
+    static JwtClaims parse(ByteBuffer payload) throws ParseException {
+        byte[] json = new byte[payload.remaining()];
+        payload.duplicate().get(json);
+        return scan(json, 0, json.length);
+    }
+
+    /**
+     * Scans a decoded segment in place.
+     * @param json bytes containing the segment
+     * @param offset offset of the segment
+     * @param length length of the segment
+     * @return claims backed by the given bytes
+     * @throws ParseException if the segment is not a JSON object, has an invalid escape or a duplicate member name
+     */
+    static JwtClaims scan(byte[] json, int offset, int length) throws ParseException {
+        JwtClaims claims = new Scanner(json, offset, offset + length).scan();
+        claims.checkDuplicates();
+        return claims;
+    }
+
+    /**
+     * @return iss claim, or null
+     */
+    public String iss() {
+        return getString("iss");
+    }
+
+    /**
+     * @return sub claim, or null
+     */
+    public String sub() {
+        return getString("sub");
+    }
+
+    /**
+     * @return email claim, or null
+     */
+    public String email() {
+        return getString("email");
+    }
+
+    /**
+     * @return aud claim as a list, which is empty if the claim is absent
+     */
+    public List<String> aud() {
+        return getStrings("aud");
+    }
+
+    /**
+     * @return exp claim in seconds since the epoch, or 0 if absent
+     */
+    public long exp() {
+        return getLong("exp", 0);
+    }
+
+    /**
+     * @return iat claim in seconds since the epoch, or 0 if absent
+     */
+    public long iat() {
+        return getLong("iat", 0);
+    }
+
+    /**
+     * @return nbf claim in seconds since the epoch, or 0 if absent
+     */
+    public long nbf() {
+        return getLong("nbf", 0);
+    }
+
+    /**
+     * @param name claim name
+     * @return true if the claim is present
+     */
+    public boolean has(String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @param name claim name
+     * @return string value, or null if the claim is absent or not a string
+     */
+    public String getString(String name) {
+        int member = find(name);
+        if (member < 0) {
+            return null;
+        }
+        int start = index[member * SLOTS + VALUE_START];
+        if (json[start] != '"') {
+            return null;
+        }
+        return decodeString(start + 1, index[member * SLOTS + VALUE_END] - 1);
+    }
+
+    /**
+     * @param name claim name
+     * @param defaultValue value returned if the claim is absent or not a number
+     * @return integer value. A fraction is truncated.
+     */
+    public long getLong(String name, long defaultValue) {
+        int member = find(name);
+        if (member < 0) {
+            return defaultValue;
+        }
+        return parseLong(index[member * SLOTS + VALUE_START], index[member * SLOTS + VALUE_END], defaultValue);
+    }
+
+    /**
+     * @param name claim name
+     * @return true if the claim is the literal true
+     */
+    public boolean getBoolean(String name) {
+        int member = find(name);
+        if (member < 0) {
+            return false;
+        }
+        int start = index[member * SLOTS + VALUE_START];
+        int end = index[member * SLOTS + VALUE_END];
+        if (end - start != TRUE.length) {
+            return false;
+        }
+        for (int i = 0; i < TRUE.length; i++) {
+            if (json[start + i] != TRUE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a claim which is either a string or an array of strings as a list.
+     * Elements which are not strings are ignored.
+     * @param name claim name
+     * @return values, which is empty if the claim is absent
+     */
+    public List<String> getStrings(String name) {
+        int member = find(name);
+        if (member < 0) {
+            return Collections.emptyList();
+        }
+        int start = index[member * SLOTS + VALUE_START];
+        int end = index[member * SLOTS + VALUE_END];
+        if (json[start] == '"') {
+            return Collections.singletonList(decodeString(start + 1, end - 1));
+        }
+        if (json[start] != '[') {
+            return Collections.emptyList();
+        }
+        List<String> ret = new ArrayList<>();
+        Scanner scanner = new Scanner(json, 0, json.length);
+        int pos = scanner.skipWhitespace(start + 1);
+        try {
+            while (pos < end - 1) {
+                int valueEnd = scanner.skipValue(pos);
+                if (json[pos] == '"') {
+                    ret.add(decodeString(pos + 1, valueEnd - 1));
+                }
+                pos = scanner.skipWhitespace(valueEnd);
+                if (json[pos] == ',') {
+                    pos = scanner.skipWhitespace(pos + 1);
+                }
+            }
+        } catch (ParseException e) {
+            // The array has already been scanned successfully, so this never happens
+            throw new IllegalStateException(e);
+        }
+        return Collections.unmodifiableList(ret);
+    }
+
+    /**
+     * Parses all claims.
+     * @return claims as a JSON object
+     * @throws ParseException if a nested value is malformed
+     */
+    public JSONObject toJSON() throws ParseException {
+        return JwtReader.toJSON(json, 0, json.length);
+    }
+
+    private void checkDuplicates() throws ParseException {
+        if (members <= PAIRWISE_DUPLICATE_CHECK_MAX) {
+            for (int a = 1; a < members; a++) {
+                for (int b = 0; b < a; b++) {
+                    if (sameKey(a, b)) {
+                        throw duplicate(a);
+                    }
+                }
+            }
+            return;
+        }
+        Set<String> names = new HashSet<>();
+        for (int member = 0; member < members; member++) {
+            if (!names.add(decodeString(index[member * SLOTS], index[member * SLOTS + 1]))) {
+                throw duplicate(member);
+            }
+        }
+    }
+
+    private boolean sameKey(int a, int b) {
+        int startA = index[a * SLOTS];
+        int endA = index[a * SLOTS + 1];
+        int startB = index[b * SLOTS];
+        int endB = index[b * SLOTS + 1];
+        if (hasEscape(startA, endA) || hasEscape(startB, endB)) {
+            return decodeString(startA, endA).equals(decodeString(startB, endB));
+        }
+        if (endA - startA != endB - startB) {
+            return false;
+        }
+        for (int i = 0; i < endA - startA; i++) {
+            if (json[startA + i] != json[startB + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasEscape(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (json[i] == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ParseException duplicate(int member) {
+        return new ParseException(index[member * SLOTS], ParseException.ERROR_UNEXPECTED_TOKEN,
+                decodeString(index[member * SLOTS], index[member * SLOTS + 1]));
+    }
+
+    private int find(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int member = 0; member < members; member++) {
+            if (keyEquals(index[member * SLOTS], index[member * SLOTS + 1], nameBytes, name)) {
+                return member;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int start, int end, byte[] nameBytes, String name) {
+        if (hasEscape(start, end)) {
+            return name.equals(decodeString(start, end));
+        }
+        if (end - start != nameBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < nameBytes.length; i++) {
+            if (json[start + i] != nameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseLong(int start, int end, long defaultValue) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && json[i] == '-') {
+            negative = true;
+            i++;
+        }
+        if (i >= end) {
+            return defaultValue;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = json[i];
+            if (b < '0' || b > '9' || value > (Long.MAX_VALUE - (b - '0')) / RADIX) {
+                return parseDouble(start, end, defaultValue);
+            }
+            value = value * RADIX + (b - '0');
+        }
+        if (negative) {
+            return -value;
+        }
+        return value;
+    }
+
+    private long parseDouble(int start, int end, long defaultValue) {
+        try {
+            return (long) Double.parseDouble(new String(json, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Decodes the content of a JSON string between its quotes. Escapes have been validated by the scanner.
+     */
+    private String decodeString(int start, int end) {
+        int escape = -1;
+        for (int i = start; i < end; i++) {
+            if (json[i] == '\\') {
+                escape = i;
+                break;
+            }
+        }
+        if (escape < 0) {
+            return new String(json, start, end - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int run = start;
+        int i = escape;
+        while (i < end) {
+            if (json[i] != '\\') {
+                i++;
+                continue;
+            }
+            sb.append(new String(json, run, i - run, StandardCharsets.UTF_8));
+            char c = (char) json[i + 1];
+            i += 2;
+            switch (c) {
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'u':
+                char unit = 0;
+                for (int k = 0; k < UNICODE_ESCAPE_LENGTH; k++) {
+                    unit = (char) (unit * HEX_RADIX + Character.digit(json[i + k], HEX_RADIX));
+                }
+                sb.append(unit);
+                i += UNICODE_ESCAPE_LENGTH;
+                break;
+            default:
+                sb.append(c);
+                break;
+            }
+            run = i;
+        }
+        sb.append(new String(json, run, end - run, StandardCharsets.UTF_8));
+        return sb.toString();
+    }
+
+    /**
+     * Scanner which locates the top level members of a JSON object.
+     */
+    private static final class Scanner {
+        private final byte[] json;
+        private final int offset;
+        private final int limit;
+
+        Scanner(byte[] json, int offset, int limit) {
+            this.json = json;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        JwtClaims scan() throws ParseException {
+            int[] index = new int[INITIAL_MEMBERS * SLOTS];
+            int members = 0;
+            int pos = expect(skipWhitespace(offset), '{');
+            pos = skipWhitespace(pos);
+            if (pos < limit && json[pos] == '}') {
+                return finish(pos + 1, index, 0);
+            }
+            while (true) {
+                if (pos >= limit || json[pos] != '"') {
+                    throw unexpected(pos);
+                }
+                int keyEnd = endOfString(pos);
+                int valueStart = skipWhitespace(expect(skipWhitespace(keyEnd + 1), ':'));
+                int valueEnd = skipValue(valueStart);
+                if ((members + 1) * SLOTS > index.length) {
+                    int[] grown = new int[index.length * 2];
+                    System.arraycopy(index, 0, grown, 0, index.length);
+                    index = grown;
+                }
+                int slot = members * SLOTS;
+                index[slot] = pos + 1;
+                index[slot + 1] = keyEnd;
+                index[slot + VALUE_START] = valueStart;
+                index[slot + VALUE_END] = valueEnd;
+                members++;
+                pos = skipWhitespace(valueEnd);
+                if (pos < limit && json[pos] == ',') {
+                    pos = skipWhitespace(pos + 1);
+                    continue;
+                }
+                return finish(expect(pos, '}'), index, members);
+            }
+        }
+
+        private JwtClaims finish(int pos, int[] index, int members) throws ParseException {
+            int end = skipWhitespace(pos);
+            if (end != limit) {
+                throw unexpected(end);
+            }
+            return new JwtClaims(json, index, members);
+        }
+
+        int skipWhitespace(int pos) {
+            int i = pos;
+            while (i < limit && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * @return index after the value starting at pos
+         */
+        int skipValue(int pos) throws ParseException {
+            if (pos >= limit) {
+                throw unexpected(pos);
+            }
+            byte b = json[pos];
+            if (b == '"') {
+                return endOfString(pos) + 1;
+            }
+            if (b == '{' || b == '[') {
+                int depth = 0;
+                int i = pos;
+                while (i < limit) {
+                    byte c = json[i];
+                    if (c == '"') {
+                        i = endOfString(i) + 1;
+                        continue;
+                    }
+                    if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                    i++;
+                    if (depth == 0) {
+                        return i;
+                    }
+                }
+                throw unexpected(i);
+            }
+            int i = pos;
+            while (i < limit && json[i] != ',' && json[i] != '}' && json[i] != ']'
+                    && json[i] != ' ' && json[i] != '\t' && json[i] != '\n' && json[i] != '\r') {
+                i++;
+            }
+            if (i == pos) {
+                throw unexpected(pos);
+            }
+            return i;
+        }
+
+        /**
+         * @return index of the closing quote of the string starting at pos
+         */
+        private int endOfString(int pos) throws ParseException {
+            int i = pos + 1;
+            while (i < limit) {
+                if (json[i] == '"') {
+                    return i;
+                }
+                if (json[i] == '\\') {
+                    i = endOfEscape(i);
+                } else {
+                    i++;
+                }
+            }
+            throw unexpected(i);
+        }
+
+        /**
+         * @return index after the escape sequence starting at pos
+         */
+        private int endOfEscape(int pos) throws ParseException {
+            if (pos + 1 >= limit) {
+                throw unexpected(pos + 1);
+            }
+            switch (json[pos + 1]) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return pos + 2;
+            case 'u':
+                for (int i = pos + 2; i < pos + 2 + UNICODE_ESCAPE_LENGTH; i++) {
+                    if (i >= limit || Character.digit(json[i], HEX_RADIX) < 0) {
+                        throw unexpected(i);
+                    }
+                }
+                return pos + 2 + UNICODE_ESCAPE_LENGTH;
+            default:
+                throw unexpected(pos + 1);
+            }
+        }
+
+        private int expect(int pos, char c) throws ParseException {
+            if (pos >= limit || json[pos] != c) {
+                throw unexpected(pos);
+            }
+            return pos + 1;
+        }
+
+        private ParseException unexpected(int pos) {
+            Object unexpected = null;
+            if (pos < limit) {
+                unexpected = (char) json[pos];
+            }
+            return new ParseException(pos, ParseException.ERROR_UNEXPECTED_CHAR, unexpected);
+        }
+    }
+}
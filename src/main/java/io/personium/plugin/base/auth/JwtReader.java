@@ -0,0 +1,281 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.nio.ByteBuffer;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import io.personium.plugin.base.json.JsonProviders;
+import io.personium.plugin.base.utils.Base64UrlCodec;
+
+/**
+ * Reader of a compact serialized JWT.
+ * The boundaries of the header, payload and signature are located in the token itself without copying it,
+ * and each segment is base64url decoded into a buffer which is reused by the current thread.
+ * Decoded segments are exposed as read-only {@link ByteBuffer} views, which stay valid only
+ * until the same segment of another token is decoded on the same thread. Callers which need the bytes
+ * beyond that must copy them. The reader itself detects when another reader has reused the buffer
+ * and decodes the segment again, so its own methods such as {@link #payloadJSON()} always read its own token.
+ * Instances are not thread safe.
+ */
+public final class JwtReader {
+
+    /** Index of the header segment. */
+    static final int HEADER = 0;
+    /** Index of the payload segment. */
+    static final int PAYLOAD = 1;
+    /** Index of the signature segment. */
+    static final int SIGNATURE = 2;
+
+    private static final int SEGMENTS = 3;
+    /** Index of the buffer of the signing input. */
+    private static final int SIGNING_INPUT = 3;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    /** Buffers larger than this are not kept for reuse. */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final CharSequence token;
+    private final int[] starts = new int[SEGMENTS];
+    private final int[] ends = new int[SEGMENTS];
+    private final ByteBuffer[] decoded = new ByteBuffer[SEGMENTS];
+    /** Buffers each segment was decoded into, or null if it was decoded into a buffer of its own. */
+    private final Buffers[] decodedInto = new Buffers[SEGMENTS];
+    /** Generation of the buffer when each segment was decoded into it. */
+    private final long[] decodedGeneration = new long[SEGMENTS];
+
+    private JwtReader(CharSequence token) {
+        this.token = token;
+    }
+
+    /**
+     * Locates the segments of a token. Segments are decoded lazily.
+     * @param token compact serialized JWT
+     * @return reader
+     * @throws ParseException if the token does not consist of three segments
+     */
+    public static JwtReader of(CharSequence token) throws ParseException {
+        if (token == null) {
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+        }
+        JwtReader reader = new JwtReader(token);
+        int segment = 0;
+        int length = token.length();
+        for (int i = 0; i < length; i++) {
+            if (token.charAt(i) == '.') {
+                if (segment == SIGNATURE) {
+                    throw new ParseException(i, ParseException.ERROR_UNEXPECTED_CHAR, '.');
+                }
+                reader.ends[segment] = i;
+                segment++;
+                reader.starts[segment] = i + 1;
+            }
+        }
+        if (segment != SIGNATURE) {
+            throw new ParseException(length, ParseException.ERROR_UNEXPECTED_TOKEN, null);
+        }
+        reader.ends[SIGNATURE] = length;
+        return reader;
+    }
+
+    /**
+     * @return decoded header
+     * @throws ParseException if the segment is not valid base64url
+     */
+    public ByteBuffer header() throws ParseException {
+        return segment(HEADER);
+    }
+
+    /**
+     * @return decoded payload
+     * @throws ParseException if the segment is not valid base64url
+     */
+    public ByteBuffer payload() throws ParseException {
+        return segment(PAYLOAD);
+    }
+
+    /**
+     * @return decoded signature
+     * @throws ParseException if the segment is not valid base64url
+     */
+    public ByteBuffer signature() throws ParseException {
+        return segment(SIGNATURE);
+    }
+
+    /**
+     * @return header parsed as JSON
+     * @throws ParseException if the header is not a JSON object
+     */
+    public JSONObject headerJSON() throws ParseException {
+        return toJSON(decoded(HEADER));
+    }
+
+    /**
+     * @return payload parsed as JSON
+     * @throws ParseException if the payload is not a JSON object
+     */
+    public JSONObject payloadJSON() throws ParseException {
+        return toJSON(decoded(PAYLOAD));
+    }
+
+    /**
+     * Returns a lazy view of the payload which decodes only the claims that are read.
+     * @return claims
+     * @throws ParseException if the payload is not a JSON object
+     */
+    public JwtClaims claims() throws ParseException {
+        return JwtClaims.parse(decoded(PAYLOAD));
+    }
+
+    /**
+     * Returns the length of the signing input, that is the encoded header and payload joined by a dot.
+     * The signing input itself is the first characters of the token.
+     * @return length of the signing input
+     */
+    public int signingInputLength() {
+        return ends[PAYLOAD];
+    }
+
+    /**
+     * @return token
+     */
+    public CharSequence getToken() {
+        return token;
+    }
+
+    /**
+     * Parses JSON from a decoded segment with the configured {@link io.personium.plugin.base.json.JsonProvider}.
+     * The segment is scanned by {@link JwtClaims} first, so that segments with duplicate member names,
+     * which parsers resolve silently, are rejected in the same way as by {@link #claims()}.
+     * @param bytes decoded segment
+     * @param offset offset of the segment
+     * @param length length of the segment
+     * @return JSON object
+     * @throws ParseException if the bytes are not a JSON object or have duplicate member names
+     */
+    static JSONObject toJSON(byte[] bytes, int offset, int length) throws ParseException {
+        JwtClaims.scan(bytes, offset, length);
+        Object parsed = JsonProviders.get().parse(bytes, offset, length);
+        if (!(parsed instanceof JSONObject)) {
+            throw new ParseException(0, ParseException.ERROR_UNEXPECTED_TOKEN, parsed);
+        }
+        return (JSONObject) parsed;
+    }
+
+    private static JSONObject toJSON(ByteBuffer bytes) throws ParseException {
+        return toJSON(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    }
+
+    private ByteBuffer segment(int index) throws ParseException {
+        return decoded(index).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the signing input as ASCII bytes in a buffer reused by the current thread.
+     * The header and payload must have been decoded, which guarantees that they are ASCII.
+     * @return signing input
+     */
+    ByteBuffer signingInput() {
+        int length = signingInputLength();
+        byte[] buf;
+        if (length > MAX_RETAINED_BUFFER_SIZE) {
+            buf = new byte[length];
+        } else {
+            buf = BUFFERS.get().acquire(SIGNING_INPUT, length);
+        }
+        for (int i = 0; i < length; i++) {
+            buf[i] = (byte) token.charAt(i);
+        }
+        return ByteBuffer.wrap(buf, 0, length);
+    }
+
+    /**
+     * Returns a decoded segment backed by the buffer of the current thread.
+     * @param index index of the segment
+     * @return decoded segment
+     * @throws ParseException if the segment is not valid base64url
+     */
+    ByteBuffer decoded(int index) throws ParseException {
+        ByteBuffer ret = decoded[index];
+        if (ret == null || isStale(index)) {
+            ret = decode(index);
+            decoded[index] = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Checks whether the buffer a segment was decoded into has since been reused, by another reader
+     * or because this reader is now used on another thread.
+     */
+    private boolean isStale(int index) {
+        Buffers into = decodedInto[index];
+        if (into == null) {
+            return false;
+        }
+        return into != BUFFERS.get() || into.generations[index] != decodedGeneration[index];
+    }
+
+    private ByteBuffer decode(int index) throws ParseException {
+        int start = starts[index];
+        int end = ends[index];
+        int size = Base64UrlCodec.maxDecodedLength(end - start);
+        byte[] buf;
+        if (size > MAX_RETAINED_BUFFER_SIZE) {
+            buf = new byte[size];
+            decodedInto[index] = null;
+        } else {
+            Buffers buffers = BUFFERS.get();
+            buf = buffers.acquire(index, size);
+            decodedInto[index] = buffers;
+            decodedGeneration[index] = buffers.generations[index];
+        }
+        int written = Base64UrlCodec.decodeStrict(token, start, end, buf, 0);
+        if (written < 0) {
+            int position = -written - 1;
+            Object unexpected = null;
+            if (position < end) {
+                unexpected = token.charAt(position);
+            }
+            throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, unexpected);
+        }
+        return ByteBuffer.wrap(buf, 0, written);
+    }
+
+    /**
+     * Buffers of a thread, one per segment and one for the signing input.
+     */
+    private static final class Buffers {
+        private final byte[][] bytes = new byte[SIGNING_INPUT + 1][];
+        /** Incremented each time a buffer is handed out, so that earlier users can tell it has been reused. */
+        private final long[] generations = new long[SIGNING_INPUT + 1];
+
+        byte[] acquire(int index, int size) {
+            generations[index]++;
+            byte[] buf = bytes[index];
+            if (buf == null || buf.length < size) {
+                buf = new byte[Math.max(size, INITIAL_BUFFER_SIZE)];
+                bytes[index] = buf;
+            }
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.PluginConfig;
+import io.personium.plugin.base.utils.PluginUtils;
+
+/**
+ * Verifier of signed JWTs such as ID tokens.
+ * RS256, RS384, RS512, ES256, ES384 and ES512 are supported.
+ * Public keys are fetched from the JWK Set of the issuer and cached by issuer and kid,
+ * and {@link Signature} instances are reused per thread.
+ * When a token refers to an unknown kid, the JWK Set is fetched again at most once per
+ * {@link PluginConfig.Auth#JWKS_MIN_REFRESH_INTERVAL} so that key rotation is picked up
+ * without letting forged kids trigger a request each. A failed fetch is rate limited in the same way,
+ * so an unreachable issuer fails fast until the interval has elapsed.
+ * Only tokens of registered issuers are accepted.
+ */
+public final class JwtVerifier {
+
+    static Logger log = LoggerFactory.getLogger(JwtVerifier.class);
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /** JCA signature algorithm of each JWS algorithm. */
+    private static final Map<String, String> ALGORITHMS = new HashMap<>();
+    /** Curve of each ECDSA JWS algorithm. */
+    private static final Map<String, String> CURVES = new HashMap<>();
+    /** JCA curve name of each JWK curve. */
+    private static final Map<String, String> CURVE_NAMES = new HashMap<>();
+
+    static {
+        ALGORITHMS.put("RS256", "SHA256withRSA");
+        ALGORITHMS.put("RS384", "SHA384withRSA");
+        ALGORITHMS.put("RS512", "SHA512withRSA");
+        // JWS carries ECDSA signatures as R || S, which is the IEEE P1363 format
+        ALGORITHMS.put("ES256", "SHA256withECDSAinP1363Format");
+        ALGORITHMS.put("ES384", "SHA384withECDSAinP1363Format");
+        ALGORITHMS.put("ES512", "SHA512withECDSAinP1363Format");
+        CURVES.put("ES256", "P-256");
+        CURVES.put("ES384", "P-384");
+        CURVES.put("ES512", "P-521");
+        CURVE_NAMES.put("P-256", "secp256r1");
+        CURVE_NAMES.put("P-384", "secp384r1");
+        CURVE_NAMES.put("P-521", "secp521r1");
+    }
+
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(HashMap::new);
+
+    private static volatile JwtVerifier defaultVerifier;
+
+    /** Number of threads verifying the tokens of {@link #verifyAll(List)}, including the calling thread. */
+    private static final int VERIFY_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Threads of {@link #verifyAll(List)}. Kept apart from the common fork-join pool,
+     * so that verifications waiting for a slow issuer never hold threads which the rest of the JVM relies on.
+     */
+    private static ExecutorService verifyExecutor;
+
+    private final ConcurrentHashMap<String, IssuerKeys> issuers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the verifier shared in this JVM. The first call installs the {@link OIDCMetadataPrefetcher}.
+     * @return shared verifier
+     */
+    public static JwtVerifier getDefault() {
+        JwtVerifier verifier = defaultVerifier;
+        if (verifier == null) {
+            synchronized (JwtVerifier.class) {
+                verifier = defaultVerifier;
+                if (verifier == null) {
+                    verifier = new JwtVerifier();
+                    defaultVerifier = verifier;
+                    // Auth plugins take the verifier when they are loaded, before the first login
+                    OIDCMetadataPrefetcher.install();
+                }
+            }
+        }
+        return verifier;
+    }
+
+    /**
+     * Registers a trusted issuer. Cached keys are discarded when the URL of its JWK Set changes.
+     * @param issuer value of the iss claim
+     * @param jwksUrl URL of the JWK Set of the issuer
+     */
+    public void registerIssuer(String issuer, String jwksUrl) {
+        IssuerKeys current = issuers.get(issuer);
+        if (current == null || !current.jwksUrl.equals(jwksUrl)) {
+            issuers.put(issuer, new IssuerKeys(issuer, jwksUrl));
+        }
+    }
+
+    /**
+     * Verifies the signature, exp and nbf of a token.
+     * @param token compact serialized JWT
+     * @return claims of the token
+     * @throws AuthPluginException.InvalidGrant if the token is malformed, untrusted, expired or wrongly signed
+     * @throws AuthPluginException.TemporarilyUnavailable if the keys of the issuer cannot be fetched
+     */
+    public JSONObject verify(String token) throws AuthPluginException {
+        JwtReader reader;
+        JSONObject header;
+        JSONObject claims;
+        try {
+            reader = JwtReader.of(token);
+            header = reader.headerJSON();
+            claims = reader.payloadJSON();
+        } catch (ParseException e) {
+            throw new AuthPluginException.InvalidGrant("Malformed token.");
+        }
+        String alg = stringValue(header, "alg");
+        String jcaAlgorithm = ALGORITHMS.get(alg);
+        if (jcaAlgorithm == null) {
+            throw new AuthPluginException.InvalidGrant("Unsupported algorithm: " + alg);
+        }
+        String iss = stringValue(claims, "iss");
+        IssuerKeys keys = null;
+        if (iss != null) {
+            keys = issuers.get(iss);
+        }
+        if (keys == null) {
+            throw new AuthPluginException.InvalidGrant("Untrusted issuer: " + iss);
+        }
+
+        List<PublicKey> candidates = keys.find(stringValue(header, "kid"), alg);
+        if (!verifySignature(reader, jcaAlgorithm, candidates)) {
+            throw new AuthPluginException.InvalidGrant("Invalid signature.");
+        }
+        checkLifetime(claims);
+        return claims;
+    }
+
+    /**
+     * Verifies tokens in parallel on threads dedicated to verification and the calling thread.
+     * The JWK Sets of the issuers of the tokens are fetched first, one request per issuer,
+     * so that the verification itself does not wait for I/O.
+     * Failures are reported in the results instead of being thrown.
+     * @param tokens compact serialized JWTs
+     * @return results in the order of the tokens
+     */
+    public List<TokenValidationResult> verifyAll(List<String> tokens) {
+        TokenValidationResult[] results = new TokenValidationResult[tokens.size()];
+        if (results.length == 0) {
+            return Arrays.asList(results);
+        }
+        ExecutorService executor = verifyExecutor();
+        awaitAll(preloadKeys(tokens, executor));
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < results.length; i = next.getAndIncrement()) {
+                results[i] = verifyQuietly(tokens.get(i));
+            }
+        };
+        List<Future<?>> helpers = new ArrayList<>();
+        int helperCount = Math.min(VERIFY_THREADS, results.length) - 1;
+        for (int i = 0; i < helperCount; i++) {
+            helpers.add(executor.submit(worker));
+        }
+        worker.run();
+        // Helpers which have not started yet have nothing left to do
+        List<Future<?>> running = new ArrayList<>();
+        for (Future<?> helper : helpers) {
+            if (!helper.cancel(false)) {
+                running.add(helper);
+            }
+        }
+        awaitAll(running);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Fetches the keys of the distinct issuers of the tokens which have not been fetched yet, in parallel.
+     */
+    private List<Future<?>> preloadKeys(List<String> tokens, ExecutorService executor) {
+        Set<IssuerKeys> pending = new HashSet<>();
+        for (String token : tokens) {
+            String iss;
+            try {
+                iss = JwtClaims.of(token).iss();
+            } catch (ParseException e) {
+                // Reported by verify
+                continue;
+            }
+            IssuerKeys keys = null;
+            if (iss != null) {
+                keys = issuers.get(iss);
+            }
+            if (keys != null && keys.keys == null) {
+                pending.add(keys);
+            }
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (IssuerKeys keys : pending) {
+            futures.add(executor.submit(keys::preload));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits for tasks to complete. An interruption is deferred until they have completed,
+     * because the tasks write into results owned by the caller.
+     */
+    private static void awaitAll(List<Future<?>> futures) {
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    log.info("Unexpected error in token verification. " + e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized ExecutorService verifyExecutor() {
+        if (verifyExecutor == null) {
+            AtomicInteger count = new AtomicInteger();
+            verifyExecutor = Executors.newFixedThreadPool(VERIFY_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "personium-jwt-verifier-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return verifyExecutor;
+    }
+
+    private TokenValidationResult verifyQuietly(String token) {
+        try {
+            return TokenValidationResult.valid(verify(token));
+        } catch (AuthPluginException e) {
+            return TokenValidationResult.invalid(e);
+        } catch (RuntimeException e) {
+            log.info("Unexpected error in token verification. " + e.getMessage());
+            AuthPluginException error = new AuthPluginException.ServerError("Failed to verify token.");
+            error.initCause(e);
+            return TokenValidationResult.invalid(error);
+        }
+    }
+
+    private static boolean verifySignature(JwtReader reader, String jcaAlgorithm, List<PublicKey> candidates)
+            throws AuthPluginException {
+        ByteBuffer sig;
+        try {
+            sig = reader.decoded(JwtReader.SIGNATURE);
+        } catch (ParseException e) {
+            throw new AuthPluginException.InvalidGrant("Malformed token.");
+        }
+        ByteBuffer input = reader.signingInput();
+        Signature signature = signature(jcaAlgorithm);
+        for (PublicKey key : candidates) {
+            try {
+                signature.initVerify(key);
+                signature.update(input.array(), input.arrayOffset() + input.position(), input.remaining());
+                if (signature.verify(sig.array(), sig.arrayOffset() + sig.position(), sig.remaining())) {
+                    return true;
+                }
+            } catch (GeneralSecurityException e) {
+                // Malformed signature or a key of another type. Try the next key.
+                log.debug("Signature verification failed. " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static Signature signature(String jcaAlgorithm) {
+        Map<String, Signature> signatures = SIGNATURES.get();
+        Signature signature = signatures.get(jcaAlgorithm);
+        if (signature == null) {
+            try {
+                signature = Signature.getInstance(jcaAlgorithm);
+            } catch (GeneralSecurityException e) {
+                // All supported algorithms are available on every Java platform
+                throw new IllegalStateException(e);
+            }
+            signatures.put(jcaAlgorithm, signature);
+        }
+        return signature;
+    }
+
+    private static void checkLifetime(JSONObject claims) throws AuthPluginException {
+        long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
+        long skew = PluginConfig.getInt(PluginConfig.Auth.CLOCK_SKEW, PluginConfig.Auth.DEFAULT_CLOCK_SKEW);
+        Object exp = claims.get("exp");
+        if (!(exp instanceof Number)) {
+            throw new AuthPluginException.InvalidGrant("Token has no exp claim.");
+        }
+        if (((Number) exp).longValue() + skew < now) {
+            throw new AuthPluginException.InvalidGrant("Token expired.");
+        }
+        Object nbf = claims.get("nbf");
+        if (nbf instanceof Number && ((Number) nbf).longValue() - skew > now) {
+            throw new AuthPluginException.InvalidGrant("Token is not yet valid.");
+        }
+    }
+
+    private static String stringValue(JSONObject json, String name) {
+        Object value = json.get(name);
+        if (value instanceof String) {
+            return (String) value;
+        }
+        return null;
+    }
+
+    /**
+     * Public keys of an issuer.
+     */
+    private static final class IssuerKeys {
+        private final String issuer;
+        private final String jwksUrl;
+        private volatile List<Jwk> keys;
+        private long lastFetched;
+        /** Error of the last fetch while no keys have been fetched yet, or null. */
+        private Exception lastError;
+
+        IssuerKeys(String issuer, String jwksUrl) {
+            this.issuer = issuer;
+            this.jwksUrl = jwksUrl;
+        }
+
+        /**
+         * Fetches the keys unless they have been fetched. Failures are reported when a token is verified.
+         */
+        void preload() {
+            if (keys != null) {
+                return;
+            }
+            try {
+                fetch(null);
+            } catch (AuthPluginException e) {
+                log.debug("Failed to preload keys of " + issuer + ". " + e.getMessage());
+            }
+        }
+
+        /**
+         * Returns the keys which may have signed a token, refreshing the keys if kid is unknown.
+         * @param kid kid of the token, or null
+         * @param alg alg of the token
+         * @return candidate keys
+         * @throws AuthPluginException when no key matches or the keys cannot be fetched
+         */
+        List<PublicKey> find(String kid, String alg) throws AuthPluginException {
+            List<Jwk> current = keys;
+            if (current == null) {
+                current = fetch(null);
+            }
+            List<PublicKey> found = match(current, kid, alg);
+            if (found.isEmpty()) {
+                current = fetch(current);
+                found = match(current, kid, alg);
+            }
+            if (found.isEmpty()) {
+                throw new AuthPluginException.InvalidGrant("No key of " + issuer + " matches kid " + kid + ".");
+            }
+            return found;
+        }
+
+        private static List<PublicKey> match(List<Jwk> jwks, String kid, String alg) {
+            List<PublicKey> ret = new ArrayList<>();
+            for (Jwk jwk : jwks) {
+                if ((kid == null || kid.equals(jwk.kid)) && jwk.supports(alg)) {
+                    ret.add(jwk.key);
+                }
+            }
+            return ret;
+        }
+
+        /**
+         * Fetches the JWK Set unless another thread has just done so.
+         * @param seen keys which the caller has already looked up, or null on the first fetch
+         * @return keys
+         */
+        private synchronized List<Jwk> fetch(List<Jwk> seen) throws AuthPluginException {
+            List<Jwk> current = keys;
+            if (current != null && current != seen) {
+                // Refreshed by another thread while waiting
+                return current;
+            }
+            long now = System.currentTimeMillis();
+            long minInterval = PluginConfig.getInt(PluginConfig.Auth.JWKS_MIN_REFRESH_INTERVAL,
+                    PluginConfig.Auth.DEFAULT_JWKS_MIN_REFRESH_INTERVAL);
+            if (now - lastFetched < minInterval) {
+                if (current != null) {
+                    return current;
+                }
+                if (lastError != null) {
+                    // The issuer has just failed. Fail fast instead of waiting for retries and timeouts again.
+                    throw unavailable(lastError);
+                }
+            }
+            lastFetched = now;
+            JSONObject jwks;
+            try {
+                if (current == null) {
+                    jwks = PluginUtils.getHttpJSON(jwksUrl);
+                } else {
+                    // Bypass the HTTP cache, which may still hold the set before the rotation
+                    jwks = PluginUtils.revalidateHttpJSON(jwksUrl);
+                }
+            } catch (IOException | ParseException | RuntimeException e) {
+                log.info("Failed to get JWK Set of " + issuer + " from " + jwksUrl + ". " + e.getMessage());
+                if (current != null) {
+                    return current;
+                }
+                lastError = e;
+                throw unavailable(e);
+            }
+            List<Jwk> parsed = parse(jwks);
+            keys = parsed;
+            lastError = null;
+            return parsed;
+        }
+
+        private AuthPluginException unavailable(Exception cause) {
+            AuthPluginException ex = new AuthPluginException.TemporarilyUnavailable(
+                    "Failed to get keys of " + issuer);
+            ex.initCause(cause);
+            return ex;
+        }
+
+        private List<Jwk> parse(JSONObject jwks) {
+            Object array = jwks.get("keys");
+            if (!(array instanceof JSONArray)) {
+                log.info("JWK Set of " + issuer + " has no keys.");
+                return Collections.emptyList();
+            }
+            List<Jwk> ret = new ArrayList<>();
+            for (Object element : (JSONArray) array) {
+                if (!(element instanceof JSONObject)) {
+                    continue;
+                }
+                try {
+                    Jwk jwk = Jwk.parse((JSONObject) element);
+                    if (jwk != null) {
+                        ret.add(jwk);
+                    }
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    log.info("Ignoring invalid JWK of " + issuer + ". " + e.getMessage());
+                }
+            }
+            return Collections.unmodifiableList(ret);
+        }
+    }
+
+    /**
+     * Parsed JSON Web Key.
+     */
+    private static final class Jwk {
+        private final String kid;
+        private final String kty;
+        private final String crv;
+        private final PublicKey key;
+
+        Jwk(String kid, String kty, String crv, PublicKey key) {
+            this.kid = kid;
+            this.kty = kty;
+            this.crv = crv;
+            this.key = key;
+        }
+
+        boolean supports(String alg) {
+            if (alg.startsWith("RS")) {
+                return "RSA".equals(kty);
+            }
+            return "EC".equals(kty) && CURVES.get(alg).equals(crv);
+        }
+
+        /**
+         * @param json JWK
+         * @return key, or null if it is not a signature key of a supported type
+         */
+        static Jwk parse(JSONObject json) throws GeneralSecurityException {
+            String use = stringValue(json, "use");
+            if (use != null && !"sig".equals(use)) {
+                return null;
+            }
+            String kid = stringValue(json, "kid");
+            String kty = stringValue(json, "kty");
+            if ("RSA".equals(kty)) {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(integer(json, "n"), integer(json, "e"));
+                return new Jwk(kid, kty, null, KeyFactory.getInstance("RSA").generatePublic(spec));
+            }
+            if ("EC".equals(kty)) {
+                String crv = stringValue(json, "crv");
+                String curveName = CURVE_NAMES.get(crv);
+                if (curveName == null) {
+                    return null;
+                }
+                AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+                params.init(new ECGenParameterSpec(curveName));
+                ECPublicKeySpec spec = new ECPublicKeySpec(new ECPoint(integer(json, "x"), integer(json, "y")),
+                        params.getParameterSpec(ECParameterSpec.class));
+                return new Jwk(kid, kty, crv, KeyFactory.getInstance("EC").generatePublic(spec));
+            }
+            return null;
+        }
+
+        private static BigInteger integer(JSONObject json, String name) {
+            String value = stringValue(json, name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + name);
+            }
+            return new BigInteger(1, PluginUtils.decodeBase64Url(value));
+        }
+    }
+}
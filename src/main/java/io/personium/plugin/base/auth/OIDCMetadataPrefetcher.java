@@ -0,0 +1,200 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.ConfigChangeListener;
+import io.personium.plugin.base.PluginConfig;
+import io.personium.plugin.base.utils.HttpClientPool;
+import io.personium.plugin.base.utils.PluginUtils;
+
+/**
+ * Background refresher of the discovery documents and JWKS of the OIDC providers configured under
+ * {@code io.personium.core.oidc.<provider>.*}.
+ * Documents are fetched at startup and revalidated before the freshness lifetime stored in the HTTP cache
+ * runs out, so that logins are served from the cache without waiting for the IdP.
+ * The refresher is installed when auth plugins are loaded: by the loader calling {@link #install()},
+ * or by the first call of {@link JwtVerifier#getDefault()}. It then follows changes of
+ * {@link PluginConfig.Http#PREFETCH_ENABLED}, {@link PluginConfig.Http#PREFETCH_INTERVAL} and the providers.
+ */
+public final class OIDCMetadataPrefetcher {
+
+    static Logger log = LoggerFactory.getLogger(OIDCMetadataPrefetcher.class);
+
+    /** Key of the JWKS URL in a discovery document. */
+    static final String JWKS_URI = "jwks_uri";
+
+    private static final double INTERVAL_RATIO = 0.8;
+
+    private static ScheduledExecutorService scheduler;
+
+    private static boolean installed;
+
+    private OIDCMetadataPrefetcher() {
+    }
+
+    /**
+     * Starts the background refresh if it is enabled, and restarts or stops it whenever
+     * the prefetch settings or the OIDC providers change.
+     * Meant to be called when auth plugins are loaded; later calls do nothing.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        ConfigChangeListener listener = event -> restart();
+        PluginConfig.addChangeListener(PluginConfig.Http.PREFETCH_ENABLED, listener);
+        PluginConfig.addChangeListener(PluginConfig.Http.PREFETCH_INTERVAL, listener);
+        PluginConfig.addChangeListener(PluginConfig.OIDC.OIDC, listener);
+        start();
+    }
+
+    /**
+     * Starts the background refresh if {@link PluginConfig.Http#PREFETCH_ENABLED} is true.
+     * @return true if the refresh is running
+     */
+    public static synchronized boolean start() {
+        if (scheduler != null) {
+            return true;
+        }
+        if (!PluginConfig.getBoolean(PluginConfig.Http.PREFETCH_ENABLED,
+                PluginConfig.Http.DEFAULT_PREFETCH_ENABLED)) {
+            return false;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "plugin-oidc-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = executor;
+        for (String provider : PluginConfig.OIDC.getProviders()) {
+            executor.execute(() -> run(executor, provider));
+        }
+        log.info("OIDC metadata prefetch started.");
+        return true;
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static synchronized void restart() {
+        stop();
+        start();
+    }
+
+    /**
+     * Refreshes the documents of all configured providers once.
+     */
+    public static void refreshAll() {
+        for (String provider : PluginConfig.OIDC.getProviders()) {
+            refresh(provider);
+        }
+    }
+
+    /**
+     * Refreshes a provider and schedules its next refresh on the same executor.
+     */
+    private static void run(ScheduledExecutorService executor, String provider) {
+        long delay = refresh(provider);
+        try {
+            executor.schedule(() -> run(executor, provider), delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("OIDC metadata prefetch of " + provider + " ended. The refresher was stopped.");
+        }
+    }
+
+    /**
+     * Refreshes the documents of a provider.
+     * @param provider provider name
+     * @return seconds until the documents should be refreshed again
+     */
+    static long refresh(String provider) {
+        String prefix = PluginConfig.OIDC.OIDC + provider;
+        String discoveryUrl = PluginConfig.get(prefix + PluginConfig.OIDC.DISCOVERY_URL);
+        String jwksUrl = PluginConfig.get(prefix + PluginConfig.OIDC.JWKS_URL);
+        long lifetime = Long.MAX_VALUE;
+        try {
+            if (discoveryUrl != null) {
+                JSONObject discovery = PluginUtils.revalidateHttpJSON(discoveryUrl);
+                lifetime = Math.min(lifetime, getLifetime(discoveryUrl));
+                if (jwksUrl == null && discovery.get(JWKS_URI) instanceof String) {
+                    jwksUrl = (String) discovery.get(JWKS_URI);
+                }
+            }
+            if (jwksUrl != null) {
+                PluginUtils.revalidateHttpJSON(jwksUrl);
+                lifetime = Math.min(lifetime, getLifetime(jwksUrl));
+            }
+        } catch (IOException | ParseException | RuntimeException e) {
+            log.info("Failed to prefetch OIDC metadata of " + provider + ". " + e.getMessage());
+            lifetime = -1;
+        }
+        if (lifetime == Long.MAX_VALUE) {
+            lifetime = -1;
+        }
+        return getDelay(lifetime);
+    }
+
+    /**
+     * Freshness lifetime of a cached document, or -1 when it is not cached (e.g. with the jdk transport).
+     */
+    private static long getLifetime(String url) {
+        return HttpClientPool.getCacheStorage().getFreshnessLifetime(url);
+    }
+
+    /**
+     * Returns the delay before the next refresh: 80% of the shortest document lifetime,
+     * capped by {@link PluginConfig.Http#PREFETCH_INTERVAL} when it is set.
+     * Without a known lifetime, the interval or 80% of {@link PluginConfig.Http#CACHE_MIN_TTL} is used.
+     * @param lifetime shortest freshness lifetime in seconds, or -1 if unknown
+     * @return delay in seconds
+     */
+    static long getDelay(long lifetime) {
+        long interval = PluginConfig.getInt(PluginConfig.Http.PREFETCH_INTERVAL, 0);
+        if (lifetime >= 0) {
+            long delay = Math.max(1, (long) (lifetime * INTERVAL_RATIO));
+            if (interval > 0) {
+                return Math.min(interval, delay);
+            }
+            return delay;
+        }
+        if (interval > 0) {
+            return interval;
+        }
+        int minTtl = PluginConfig.getInt(PluginConfig.Http.CACHE_MIN_TTL, PluginConfig.Http.DEFAULT_CACHE_MIN_TTL);
+        return Math.max(1, (long) (minTtl * INTERVAL_RATIO));
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Set of one-time identifiers such as jti of assertions and nonce of ID tokens which have already been used.
+ * An identifier is kept until the given expiry, after which the token it belongs to is invalid anyway.
+ * The set is split into shards, each with its own lock and a timing wheel of one second ticks
+ * which evicts expired identifiers as time advances, so that no operation takes a global lock.
+ * Shards are chosen with a hash keyed by a random seed of each instance, so that identifiers
+ * chosen by a client cannot be aimed at one shard to fill it.
+ * The number of identifiers is bounded, and when a shard is full new identifiers are rejected
+ * rather than risking that a replay goes undetected.
+ */
+public final class ReplayCache {
+
+    private static final int SHARDS_PER_CPU = 4;
+    private static final int MAX_SHARDS = 256;
+    private static final int SHARD_SPREAD_SHIFT = 32;
+    /** Multiplier of the per-character mixing, the 64-bit golden ratio. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    /** Constants of the MurmurHash3 64-bit finalizer. */
+    private static final long FMIX_C1 = 0xFF51AFD7ED558CCDL;
+    private static final long FMIX_C2 = 0xC4CEB9FE1A85EC53L;
+    private static final int FMIX_SHIFT = 33;
+    private static final long TICK_MILLIS = 1000L;
+    /** Number of buckets of a wheel. Identifiers expiring later are rescheduled when their bucket comes round. */
+    private static final int WHEEL_SIZE = 4096;
+
+    private static volatile ReplayCache defaultCache;
+
+    private final Shard[] shards;
+    private final int mask;
+    private final long seed = new SecureRandom().nextLong();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param maxEntries maximum number of identifiers
+     */
+    public ReplayCache(int maxEntries) {
+        int count = Integer.highestOneBit(
+                Math.min(MAX_SHARDS, Runtime.getRuntime().availableProcessors() * SHARDS_PER_CPU));
+        count = Math.max(1, Math.min(count, Integer.highestOneBit(Math.max(1, maxEntries))));
+        this.shards = new Shard[count];
+        this.mask = count - 1;
+        int perShard = Math.max(1, maxEntries / count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(perShard, now / TICK_MILLIS);
+        }
+    }
+
+    /**
+     * Returns the cache shared in this JVM, sized with {@link PluginConfig.Auth#REPLAY_CACHE_MAX_ENTRIES}.
+     * @return shared cache
+     */
+    public static ReplayCache getDefault() {
+        ReplayCache cache = defaultCache;
+        if (cache == null) {
+            synchronized (ReplayCache.class) {
+                cache = defaultCache;
+                if (cache == null) {
+                    cache = new ReplayCache(PluginConfig.getInt(PluginConfig.Auth.REPLAY_CACHE_MAX_ENTRIES,
+                            PluginConfig.Auth.DEFAULT_REPLAY_CACHE_MAX_ENTRIES));
+                    defaultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Records the use of an identifier.
+     * Identifiers of different issuers or flows should be prefixed so that they do not collide.
+     * @param id identifier
+     * @param expiresAt epoch milliseconds until which the identifier must be remembered,
+     *     typically the exp of the token plus the tolerated clock skew
+     * @return true on the first use. False if the identifier has been used, has already expired,
+     *     or cannot be remembered because the cache is full.
+     */
+    public boolean markUsed(String id, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            rejections.increment();
+            return false;
+        }
+        Shard shard = shards[shardIndex(id)];
+        int result = shard.add(id, expiresAt, now);
+        if (result == Shard.REPLAYED) {
+            replays.increment();
+            return false;
+        }
+        if (result == Shard.FULL) {
+            rejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes an identifier with the seed of this instance. Unlike {@link String#hashCode()},
+     * colliding identifiers cannot be computed without knowing the seed.
+     */
+    private int shardIndex(String id) {
+        long h = seed;
+        for (int i = 0; i < id.length(); i++) {
+            h = (h ^ id.charAt(i)) * GOLDEN_GAMMA;
+        }
+        h ^= h >>> FMIX_SHIFT;
+        h *= FMIX_C1;
+        h ^= h >>> FMIX_SHIFT;
+        h *= FMIX_C2;
+        h ^= h >>> FMIX_SHIFT;
+        return (int) (h ^ (h >>> SHARD_SPREAD_SHIFT)) & mask;
+    }
+
+    /**
+     * @return number of identifiers held, including ones which have expired but not been swept yet
+     */
+    public int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return number of replays detected
+     */
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    /**
+     * @return number of identifiers rejected because they had expired or the cache was full
+     */
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Forgets all identifiers.
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Part of the cache guarded by its own lock.
+     */
+    private static final class Shard {
+        static final int ADDED = 0;
+        static final int REPLAYED = 1;
+        static final int FULL = 2;
+
+        private final int capacity;
+        private final HashMap<String, Long> expiries = new HashMap<>();
+        /** Buckets of the timing wheel. A bucket is null until an identifier is scheduled in it. */
+        private final List<List<String>> wheel = new ArrayList<>(Collections.nCopies(WHEEL_SIZE, null));
+        private long currentTick;
+
+        Shard(int capacity, long tick) {
+            this.capacity = capacity;
+            this.currentTick = tick;
+        }
+
+        synchronized int add(String id, long expiresAt, long now) {
+            advance(now);
+            Long existing = expiries.get(id);
+            if (existing != null && existing > now) {
+                return REPLAYED;
+            }
+            if (existing == null && expiries.size() >= capacity) {
+                return FULL;
+            }
+            expiries.put(id, expiresAt);
+            if (existing == null) {
+                schedule(id, expiresAt);
+            }
+            // Otherwise the identifier expired but has not been swept. It is still in a bucket,
+            // which reschedules it with the new expiry when it comes round.
+            return ADDED;
+        }
+
+        synchronized int size() {
+            return expiries.size();
+        }
+
+        synchronized void clear() {
+            expiries.clear();
+            Collections.fill(wheel, null);
+        }
+
+        /**
+         * Sweeps the buckets of the ticks which have passed since the last call.
+         */
+        private void advance(long now) {
+            long tick = now / TICK_MILLIS;
+            if (tick <= currentTick) {
+                return;
+            }
+            // After a long pause every bucket has come round, so each is swept only once
+            long from = Math.max(currentTick + 1, tick - WHEEL_SIZE + 1);
+            currentTick = tick;
+            for (long t = from; t <= tick; t++) {
+                int slot = (int) (t % WHEEL_SIZE);
+                List<String> bucket = wheel.get(slot);
+                if (bucket == null) {
+                    continue;
+                }
+                wheel.set(slot, null);
+                for (String id : bucket) {
+                    Long expiresAt = expiries.get(id);
+                    if (expiresAt == null) {
+                        continue;
+                    }
+                    if (expiresAt <= now) {
+                        expiries.remove(id);
+                    } else {
+                        schedule(id, expiresAt);
+                    }
+                }
+            }
+        }
+
+        private void schedule(String id, long expiresAt) {
+            // Swept at the first tick after expiry, or rescheduled from the farthest bucket
+            long tick = Math.min(expiresAt / TICK_MILLIS + 1, currentTick + WHEEL_SIZE - 1);
+            int slot = (int) (tick % WHEEL_SIZE);
+            List<String> bucket = wheel.get(slot);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                wheel.set(slot, bucket);
+            }
+            bucket.add(id);
+        }
+    }
+}
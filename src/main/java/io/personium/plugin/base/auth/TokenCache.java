@@ -0,0 +1,319 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import io.personium.plugin.base.PluginConfig;
+import io.personium.plugin.base.utils.PluginUtils;
+
+/**
+ * Bounded cache of parsed tokens, keyed by the SHA-256 digest of the token so that tokens are not kept in memory.
+ * An entry expires at the exp claim of the parsed token, and tokens without exp are not cached.
+ * Eviction follows W-TinyLFU: new entries enter a small LRU window, and an entry leaving the window is admitted
+ * to the main LRU region only if it has been seen more often than the entry it would evict.
+ * Reads do not block. Access order and frequency are recorded only when the policy lock is free.
+ */
+public final class TokenCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PERCENT = 100;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(TokenCache::newDigest);
+
+    private static volatile TokenCache defaultCache;
+
+    private final int maxEntries;
+    private final int windowMax;
+    private final int mainMax;
+    private final ConcurrentHashMap<Key, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final LinkedHashMap<Key, Node> window = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final LinkedHashMap<Key, Node> main = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final FrequencySketch sketch;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Loader of the claims of a token which is not cached.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @return parsed claims
+         * @throws ParseException if the token cannot be parsed
+         */
+        JSONObject load() throws ParseException;
+    }
+
+    /**
+     * Constructor.
+     * @param maxEntries maximum number of entries
+     */
+    public TokenCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.windowMax = Math.max(1, this.maxEntries * WINDOW_PERCENT / PERCENT);
+        this.mainMax = Math.max(1, this.maxEntries - windowMax);
+        this.sketch = new FrequencySketch(this.maxEntries);
+    }
+
+    /**
+     * Returns the cache shared in this JVM, sized with {@link PluginConfig.Auth#TOKEN_CACHE_MAX_ENTRIES}.
+     * @return shared cache
+     */
+    public static TokenCache getDefault() {
+        TokenCache cache = defaultCache;
+        if (cache == null) {
+            synchronized (TokenCache.class) {
+                cache = defaultCache;
+                if (cache == null) {
+                    cache = new TokenCache(PluginConfig.getInt(PluginConfig.Auth.TOKEN_CACHE_MAX_ENTRIES,
+                            PluginConfig.Auth.DEFAULT_TOKEN_CACHE_MAX_ENTRIES));
+                    defaultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the claims of a token, parsing it with the loader if it is not cached.
+     * A deep copy is returned so that the caller may modify it, including nested arrays such as aud.
+     * @param token token or token segment
+     * @param loader loader which parses the token
+     * @return claims
+     * @throws ParseException if the token cannot be parsed
+     */
+    public JSONObject get(String token, Loader loader) throws ParseException {
+        Key key = new Key(digest(token));
+        long now = System.currentTimeMillis();
+        Node node = data.get(key);
+        if (node != null) {
+            if (node.expiresAt > now) {
+                hits.increment();
+                afterRead(node);
+                return copy(node.claims);
+            }
+            remove(node);
+        }
+        misses.increment();
+        JSONObject claims = loader.load();
+        long expiresAt = expiresAt(claims);
+        if (expiresAt > now) {
+            put(new Node(key, copy(claims), expiresAt));
+        }
+        return claims;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which parsed the token
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted or rejected by the size limit
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void afterRead(Node node) {
+        // Recording the access is best effort. Skipping it only makes the policy slightly less accurate.
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(node.key.hashCode());
+            if (node.inWindow) {
+                window.get(node.key);
+            } else {
+                main.get(node.key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void put(Node node) {
+        policyLock.lock();
+        try {
+            sketch.increment(node.key.hashCode());
+            Node old = data.put(node.key, node);
+            if (old != null) {
+                window.remove(old.key);
+                main.remove(old.key);
+            }
+            node.inWindow = true;
+            window.put(node.key, node);
+            while (window.size() > windowMax) {
+                Iterator<Node> it = window.values().iterator();
+                Node candidate = it.next();
+                it.remove();
+                admit(candidate);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void admit(Node candidate) {
+        candidate.inWindow = false;
+        long now = System.currentTimeMillis();
+        Iterator<Node> it = main.values().iterator();
+        while (main.size() >= mainMax && it.hasNext()) {
+            Node victim = it.next();
+            if (victim.expiresAt > now
+                    && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                // The candidate is less popular than the entry it would replace
+                data.remove(candidate.key, candidate);
+                evictions.increment();
+                return;
+            }
+            it.remove();
+            data.remove(victim.key, victim);
+            if (victim.expiresAt > now) {
+                evictions.increment();
+            }
+        }
+        main.put(candidate.key, candidate);
+    }
+
+    private void remove(Node node) {
+        policyLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                window.remove(node.key);
+                main.remove(node.key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private static long expiresAt(JSONObject claims) {
+        Object exp = claims.get("exp");
+        if (!(exp instanceof Number)) {
+            return 0;
+        }
+        return ((Number) exp).longValue() * MILLIS_PER_SECOND;
+    }
+
+    private static JSONObject copy(JSONObject src) {
+        return PluginUtils.copyJSON(src);
+    }
+
+    private static byte[] digest(String token) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        return md.digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Digest of a token.
+     */
+    private static final class Key {
+        private final byte[] digest;
+        private final int hash;
+
+        Key(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(digest, ((Key) obj).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Cached claims.
+     */
+    private static final class Node {
+        private final Key key;
+        private final JSONObject claims;
+        private final long expiresAt;
+        private boolean inWindow;
+
+        Node(Key key, JSONObject claims, long expiresAt) {
+            this.key = key;
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Result of validating one token in a batch.
+ */
+public final class TokenValidationResult {
+
+    private final JSONObject claims;
+    private final AuthPluginException error;
+
+    private TokenValidationResult(JSONObject claims, AuthPluginException error) {
+        this.claims = claims;
+        this.error = error;
+    }
+
+    /**
+     * @param claims claims of the valid token
+     * @return result of a valid token
+     */
+    static TokenValidationResult valid(JSONObject claims) {
+        return new TokenValidationResult(claims, null);
+    }
+
+    /**
+     * @param error reason why the token is invalid
+     * @return result of an invalid token
+     */
+    static TokenValidationResult invalid(AuthPluginException error) {
+        return new TokenValidationResult(null, error);
+    }
+
+    /**
+     * @return true if the token is valid
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return claims of the token, or null if it is invalid
+     */
+    public JSONObject getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return reason why the token is invalid, or null if it is valid
+     */
+    public AuthPluginException getError() {
+        return error;
+    }
+}
@@ -0,0 +1,517 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Recursive descent JSON parser over UTF-8 bytes which produces json-simple values.
+ * Strings without escapes are created straight from the bytes. Instances are reused by one thread.
+ * When parsing a stream, the buffer is a window which is refilled as the parser advances. Only the token
+ * being parsed is kept when it is refilled, so the buffer grows no larger than the longest token.
+ */
+final class ByteJsonParser {
+
+    /** Maximum nesting of objects and arrays, which keeps hostile input from exhausting the stack. */
+    static final int MAX_DEPTH = 512;
+
+    private static final int RADIX = 10;
+    private static final int HEX_RADIX = 16;
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+    private static final int ASCII_LIMIT = 0x80;
+    private static final int BYTE_MASK = 0xFF;
+
+    private final StringBuilder scratch = new StringBuilder();
+    private byte[] buf;
+    private int start;
+    private int pos;
+    private int end;
+    /** Source of the remaining bytes, or null when parsing a byte array. */
+    private InputStream in;
+    /** Bytes dropped from the head of the window, for error positions. */
+    private long consumed;
+    /** Start of the token being parsed, which a refill must keep, or -1. */
+    private int mark = -1;
+
+    /**
+     * Parses a JSON value.
+     * @param bytes source
+     * @param off offset of the JSON
+     * @param len length of the JSON
+     * @return parsed value
+     * @throws ParseException if the bytes are not valid JSON
+     */
+    Object parse(byte[] bytes, int off, int len) throws ParseException {
+        buf = bytes;
+        start = off;
+        pos = off;
+        end = off + len;
+        in = null;
+        consumed = 0;
+        mark = -1;
+        try {
+            return document();
+        } finally {
+            buf = null;
+        }
+    }
+
+    /**
+     * Parses a JSON value from a stream, reading it into a window of the given buffer.
+     * The buffer is replaced by a larger one when a token does not fit; see {@link #takeBuffer()}.
+     * @param stream source, which is read to the end but not closed
+     * @param buffer initial buffer
+     * @return parsed value
+     * @throws IOException when reading fails
+     * @throws ParseException if the bytes are not valid JSON
+     */
+    Object parse(InputStream stream, byte[] buffer) throws IOException, ParseException {
+        buf = buffer;
+        start = 0;
+        pos = 0;
+        end = 0;
+        in = stream;
+        consumed = 0;
+        mark = -1;
+        try {
+            return document();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            in = null;
+        }
+    }
+
+    /**
+     * Returns the buffer used by the last {@link #parse(InputStream, byte[])}, which may have grown,
+     * and releases it from this parser.
+     * @return buffer
+     */
+    byte[] takeBuffer() {
+        byte[] ret = buf;
+        buf = null;
+        return ret;
+    }
+
+    private Object document() throws ParseException {
+        skipWhitespace();
+        Object value = value(0);
+        skipWhitespace();
+        if (available()) {
+            throw unexpected();
+        }
+        return value;
+    }
+
+    private Object value(int depth) throws ParseException {
+        if (!available()) {
+            throw unexpected();
+        }
+        switch (buf[pos]) {
+        case '{':
+            return object(depth + 1);
+        case '[':
+            return array(depth + 1);
+        case '"':
+            return string();
+        case 't':
+            return literal("true", Boolean.TRUE);
+        case 'f':
+            return literal("false", Boolean.FALSE);
+        case 'n':
+            return literal("null", null);
+        default:
+            return number();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject object(int depth) throws ParseException {
+        checkDepth(depth);
+        JSONObject ret = new JSONObject();
+        pos++;
+        skipWhitespace();
+        if (available() && buf[pos] == '}') {
+            pos++;
+            return ret;
+        }
+        while (true) {
+            if (!available() || buf[pos] != '"') {
+                throw unexpected();
+            }
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            ret.put(key, value(depth));
+            skipWhitespace();
+            if (available() && buf[pos] == ',') {
+                pos++;
+                skipWhitespace();
+                continue;
+            }
+            expect('}');
+            return ret;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONArray array(int depth) throws ParseException {
+        checkDepth(depth);
+        JSONArray ret = new JSONArray();
+        pos++;
+        skipWhitespace();
+        if (available() && buf[pos] == ']') {
+            pos++;
+            return ret;
+        }
+        while (true) {
+            ret.add(value(depth));
+            skipWhitespace();
+            if (available() && buf[pos] == ',') {
+                pos++;
+                skipWhitespace();
+                continue;
+            }
+            expect(']');
+            return ret;
+        }
+    }
+
+    private String string() throws ParseException {
+        pos++;
+        mark = pos;
+        int i = pos;
+        boolean ascii = true;
+        while (true) {
+            if (i >= end) {
+                int marked = mark;
+                boolean more = fill();
+                i -= marked - mark;
+                if (!more) {
+                    mark = -1;
+                    pos = i;
+                    throw unexpected();
+                }
+                continue;
+            }
+            byte b = buf[i];
+            if (b == '"') {
+                Charset charset = StandardCharsets.UTF_8;
+                if (ascii) {
+                    charset = StandardCharsets.ISO_8859_1;
+                }
+                String ret = new String(buf, mark, i - mark, charset);
+                mark = -1;
+                pos = i + 1;
+                return ret;
+            }
+            if (b == '\\') {
+                pos = i;
+                return escapedString();
+            }
+            if ((b & ASCII_LIMIT) != 0) {
+                ascii = false;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Decodes the rest of a string whose unescaped part starts at {@link #mark} and which has an escape at pos.
+     */
+    private String escapedString() throws ParseException {
+        StringBuilder sb = scratch;
+        sb.setLength(0);
+        int i = pos;
+        while (true) {
+            if (i >= end) {
+                int marked = mark;
+                boolean more = fill();
+                i -= marked - mark;
+                if (!more) {
+                    mark = -1;
+                    pos = i;
+                    throw unexpected();
+                }
+                continue;
+            }
+            byte b = buf[i];
+            if (b == '"') {
+                sb.append(new String(buf, mark, i - mark, StandardCharsets.UTF_8));
+                mark = -1;
+                pos = i + 1;
+                return sb.toString();
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+            sb.append(new String(buf, mark, i - mark, StandardCharsets.UTF_8));
+            mark = -1;
+            pos = i + 1;
+            escape(sb);
+            mark = pos;
+            i = pos;
+        }
+    }
+
+    /**
+     * Appends the character of the escape sequence at pos, and moves pos after it.
+     */
+    private void escape(StringBuilder sb) throws ParseException {
+        if (!available()) {
+            throw unexpected();
+        }
+        byte c = buf[pos];
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            sb.append((char) c);
+            break;
+        case 'b':
+            sb.append('\b');
+            break;
+        case 'f':
+            sb.append('\f');
+            break;
+        case 'n':
+            sb.append('\n');
+            break;
+        case 'r':
+            sb.append('\r');
+            break;
+        case 't':
+            sb.append('\t');
+            break;
+        case 'u':
+            require(1 + UNICODE_ESCAPE_LENGTH);
+            int code = 0;
+            for (int i = pos + 1; i <= pos + UNICODE_ESCAPE_LENGTH; i++) {
+                int digit = -1;
+                if (i < end) {
+                    digit = Character.digit(buf[i], HEX_RADIX);
+                }
+                if (digit < 0) {
+                    pos = i;
+                    throw unexpected();
+                }
+                code = code * HEX_RADIX + digit;
+            }
+            sb.append((char) code);
+            pos += UNICODE_ESCAPE_LENGTH;
+            break;
+        default:
+            throw unexpected();
+        }
+        pos++;
+    }
+
+    /**
+     * Parses a number of the grammar of json-simple: -?[0-9]+(\.[0-9]+)?([eE][-+]?[0-9]+)?
+     */
+    private Object number() throws ParseException {
+        mark = pos;
+        boolean decimal = false;
+        if (buf[pos] == '-') {
+            pos++;
+        }
+        digits();
+        if (available() && buf[pos] == '.') {
+            decimal = true;
+            pos++;
+            digits();
+        }
+        if (available() && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            decimal = true;
+            pos++;
+            if (available() && (buf[pos] == '+' || buf[pos] == '-')) {
+                pos++;
+            }
+            digits();
+        }
+        int first = mark;
+        mark = -1;
+        if (!decimal) {
+            Long value = parseLong(first, pos);
+            if (value != null) {
+                return value;
+            }
+        }
+        return Double.valueOf(new String(buf, first, pos - first, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Skips one or more decimal digits.
+     */
+    private void digits() throws ParseException {
+        if (!available() || buf[pos] < '0' || buf[pos] > '9') {
+            mark = -1;
+            throw unexpected();
+        }
+        do {
+            pos++;
+        } while (available() && buf[pos] >= '0' && buf[pos] <= '9');
+    }
+
+    /**
+     * @return value, or null if the digits overflow a long
+     */
+    private Long parseLong(int first, int last) throws ParseException {
+        int i = first;
+        boolean negative = buf[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == last) {
+            pos = first;
+            throw unexpected();
+        }
+        // Accumulate negatively so that Long.MIN_VALUE does not overflow
+        long value = 0;
+        for (; i < last; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > RADIX - 1) {
+                pos = i;
+                throw unexpected();
+            }
+            if (value < (Long.MIN_VALUE + digit) / RADIX) {
+                return null;
+            }
+            value = value * RADIX - digit;
+        }
+        if (negative) {
+            return value;
+        }
+        if (value == Long.MIN_VALUE) {
+            return null;
+        }
+        return -value;
+    }
+
+    private Object literal(String text, Object value) throws ParseException {
+        if (!require(text.length())) {
+            throw unexpected();
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buf[pos + i] != text.charAt(i)) {
+                pos += i;
+                throw unexpected();
+            }
+        }
+        pos += text.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (available() && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\n' || buf[pos] == '\r')) {
+            pos++;
+        }
+    }
+
+    private void expect(char c) throws ParseException {
+        if (!available() || buf[pos] != c) {
+            throw unexpected();
+        }
+        pos++;
+    }
+
+    private void checkDepth(int depth) throws ParseException {
+        if (depth > MAX_DEPTH) {
+            throw unexpected();
+        }
+    }
+
+    /**
+     * @return true if a byte is available at pos, reading more from the stream if needed
+     */
+    private boolean available() {
+        return pos < end || require(1);
+    }
+
+    /**
+     * Reads from the stream until at least n bytes are available at pos.
+     * @return false if the stream ended before
+     */
+    private boolean require(int n) {
+        while (end - pos < n) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads more bytes into the window. Bytes before {@link #mark}, or before pos when no token is marked,
+     * are dropped and the rest is moved to the head of the buffer, which grows only when that rest fills it.
+     * Indexes into the buffer other than pos and mark must be moved by as much as mark has moved.
+     * @return false at the end of the input
+     */
+    private boolean fill() {
+        if (in == null) {
+            return false;
+        }
+        int keep = pos;
+        if (mark >= 0) {
+            keep = mark;
+        }
+        if (keep > 0) {
+            System.arraycopy(buf, keep, buf, 0, end - keep);
+            end -= keep;
+            pos -= keep;
+            if (mark >= 0) {
+                mark -= keep;
+            }
+            consumed += keep;
+        }
+        if (end == buf.length) {
+            byte[] grown = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, grown, 0, end);
+            buf = grown;
+        }
+        int read;
+        try {
+            read = in.read(buf, end, buf.length - end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (read < 0) {
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    private ParseException unexpected() {
+        int position = (int) (consumed + pos - start);
+        if (pos >= end) {
+            return new ParseException(position, ParseException.ERROR_UNEXPECTED_TOKEN, null);
+        }
+        return new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, (char) (buf[pos] & BYTE_MASK));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.json.simple.parser.ParseException;
+
+/**
+ * Default provider which parses straight from UTF-8 bytes.
+ * Each thread reuses its own parser and read buffer. Streams are parsed as they are read,
+ * so the buffer only has to hold the longest token rather than the whole document.
+ */
+public final class FastJsonProvider implements JsonProvider {
+
+    /** Name of this provider. */
+    public static final String NAME = "fast";
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    /** Read buffers larger than this are not kept for reuse. */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<ByteJsonParser> PARSERS = ThreadLocal.withInitial(ByteJsonParser::new);
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public Object parse(byte[] bytes, int off, int len) throws ParseException {
+        return PARSERS.get().parse(bytes, off, len);
+    }
+
+    @Override
+    public Object parse(InputStream in) throws IOException, ParseException {
+        ByteJsonParser parser = PARSERS.get();
+        try {
+            return parser.parse(in, BUFFERS.get());
+        } finally {
+            byte[] buf = parser.takeBuffer();
+            if (buf.length <= MAX_RETAINED_BUFFER_SIZE) {
+                BUFFERS.set(buf);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.json.simple.parser.ParseException;
+
+/**
+ * Service provider of the JSON parser used by plugin-base.
+ * Implementations are registered in META-INF/services and selected by {@link JsonProviders}.
+ * Parsed values must be of the json-simple types so that callers are not affected by the choice:
+ * {@link org.json.simple.JSONObject}, {@link org.json.simple.JSONArray}, String, Long, Double, Boolean or null.
+ * Implementations must be thread safe and have a public no-arg constructor.
+ */
+public interface JsonProvider {
+
+    /**
+     * @return name used to select the provider with {@link io.personium.plugin.base.PluginConfig.Json#PROVIDER}
+     */
+    String getName();
+
+    /**
+     * Returns the priority of the provider. The provider with the highest priority is used unless one is configured.
+     * @return priority
+     */
+    int getPriority();
+
+    /**
+     * Parses UTF-8 encoded JSON.
+     * @param bytes source
+     * @param off offset of the JSON
+     * @param len length of the JSON
+     * @return parsed value
+     * @throws ParseException if the bytes are not valid JSON
+     */
+    Object parse(byte[] bytes, int off, int len) throws ParseException;
+
+    /**
+     * Parses a UTF-8 encoded JSON stream. The stream is read to its end but not closed.
+     * @param in source
+     * @return parsed value
+     * @throws IOException when reading fails
+     * @throws ParseException if the stream is not valid JSON
+     */
+    Object parse(InputStream in) throws IOException, ParseException;
+}
@@ -0,0 +1,96 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Selects the {@link JsonProvider} registered through {@link ServiceLoader}.
+ * The provider named by {@link PluginConfig.Json#PROVIDER} is used when configured,
+ * otherwise the one with the highest priority. {@link FastJsonProvider} is used when none is found.
+ * The provider is selected again when {@link PluginConfig.Json#PROVIDER} changes.
+ */
+public final class JsonProviders {
+
+    static Logger log = LoggerFactory.getLogger(JsonProviders.class);
+
+    private static volatile JsonProvider current;
+
+    static {
+        PluginConfig.addChangeListener(PluginConfig.Json.PROVIDER, event -> reload());
+    }
+
+    private JsonProviders() {
+    }
+
+    /**
+     * Returns the provider in use. It is selected on first use.
+     * @return provider
+     */
+    public static JsonProvider get() {
+        JsonProvider provider = current;
+        if (provider == null) {
+            synchronized (JsonProviders.class) {
+                provider = current;
+                if (provider == null) {
+                    provider = select(PluginConfig.get(PluginConfig.Json.PROVIDER));
+                    log.info("Using JSON provider " + provider.getName() + ".");
+                    current = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    /**
+     * Selects the provider again, for example after the configuration has changed.
+     */
+    public static synchronized void reload() {
+        current = null;
+    }
+
+    private static JsonProvider select(String configured) {
+        JsonProvider best = null;
+        try {
+            for (JsonProvider provider : ServiceLoader.load(JsonProvider.class, JsonProviders.class.getClassLoader())) {
+                if (configured != null && (configured.trim().equals(provider.getName())
+                        || configured.trim().equals(provider.getClass().getName()))) {
+                    return provider;
+                }
+                if (best == null || provider.getPriority() > best.getPriority()) {
+                    best = provider;
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            log.info("Failed to load JSON providers. " + e.getMessage());
+        }
+        if (configured != null && !configured.trim().isEmpty()) {
+            log.info("JSON provider " + configured + " is not found.");
+        }
+        if (best == null) {
+            best = new FastJsonProvider();
+        }
+        return best;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Provider backed by the json-simple parser, kept for compatibility.
+ */
+public final class JsonSimpleProvider implements JsonProvider {
+
+    /** Name of this provider. */
+    public static final String NAME = "json-simple";
+
+    private static final int PRIORITY = -100;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY;
+    }
+
+    @Override
+    public Object parse(byte[] bytes, int off, int len) throws ParseException {
+        return new JSONParser().parse(new String(bytes, off, len, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object parse(InputStream in) throws IOException, ParseException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        return new JSONParser().parse(reader);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.cache.CacheResponseStatus;
+import org.apache.http.client.cache.HttpCacheContext;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * HTTP/1.1 transport on Apache HttpClient.
+ * Requests go through the pooled client and the document cache of {@link HttpClientPool}.
+ */
+public final class ApacheHttpTransport implements HttpTransport {
+
+    @Override
+    public JSONObject getJSON(String url, boolean revalidate) throws IOException, ParseException {
+        HttpGet get = new HttpGet(url);
+        if (revalidate) {
+            get.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=0");
+        }
+        String host = get.getURI().getHost();
+        try {
+            HttpCacheContext context = HttpCacheContext.create();
+            long start = System.nanoTime();
+            HttpMetrics.beginRequest();
+            HttpResponse res;
+            try {
+                res = execute(get, context);
+            } finally {
+                long leaseAndConnect = HttpMetrics.endRequest();
+                if (isFromOrigin(context.getCacheResponseStatus())) {
+                    HttpMetrics.recordPhase(host, HttpMetrics.Phase.SERVER,
+                            System.nanoTime() - start - leaseAndConnect);
+                }
+            }
+            HttpMetrics.recordCacheStatus(host, context.getCacheResponseStatus());
+            return parseJSON(get, res, url, host);
+        } catch (IOException | ParseException | RuntimeException e) {
+            HttpMetrics.recordError(host, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the origin server was contacted. Responses served by the cache, or generated by it
+     * (e.g. 504 for only-if-cached), carry no server time and would skew the SERVER phase.
+     * A null status means the request failed before the cache decided, and is counted as the origin.
+     */
+    private static boolean isFromOrigin(CacheResponseStatus status) {
+        return status != CacheResponseStatus.CACHE_HIT && status != CacheResponseStatus.CACHE_MODULE_RESPONSE;
+    }
+
+    private static HttpResponse execute(HttpGet get, HttpCacheContext context) throws IOException {
+        CloseableHttpClient client = HttpClientPool.getClient();
+        try {
+            return client.execute(get, context);
+        } catch (IllegalStateException e) {
+            // The client was closed after a configuration change before this request leased a connection
+            CloseableHttpClient replacement = HttpClientPool.getClient();
+            if (replacement == client) {
+                throw e;
+            }
+            return replacement.execute(get, context);
+        }
+    }
+
+    private static JSONObject parseJSON(HttpGet get, HttpResponse res, String url, String host)
+            throws IOException, ParseException {
+        try {
+            PluginUtils.checkStatus(res.getStatusLine().getStatusCode(), url);
+        } catch (IOException e) {
+            // Discard the error body instead of reading it
+            get.abort();
+            throw e;
+        }
+        HttpEntity entity = res.getEntity();
+        if (entity == null) {
+            throw new ClientProtocolException("No response body from " + url);
+        }
+        long maxSize = PluginConfig.getInt(PluginConfig.Http.MAX_RESPONSE_SIZE,
+                PluginConfig.Http.DEFAULT_MAX_RESPONSE_SIZE);
+        if (entity.getContentLength() > maxSize) {
+            // Discard the connection instead of reading the rest of the body
+            get.abort();
+            throw new LimitedInputStream.LimitExceededException(
+                    "Response body from " + url + " exceeds " + maxSize + " bytes.");
+        }
+        try {
+            return PluginUtils.parseJSON(entity.getContent(), maxSize, host);
+        } catch (IOException | ParseException | RuntimeException e) {
+            get.abort();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table driven base64url codec which encodes into and decodes from caller supplied buffers.
+ * Encoding omits padding. Decoding reads straight from a {@link CharSequence} without copying it.
+ * The lenient decoder behaves like commons-codec: both the URL safe and the standard alphabets are accepted,
+ * other characters are skipped and decoding stops at the first pad character.
+ * The strict decoder accepts only the canonical unpadded base64url form, as used in JWS (RFC 7515).
+ */
+public final class Base64UrlCodec {
+
+    private static final int BITS_PER_CHAR = 6;
+    private static final int CHARS_PER_QUANTUM = 4;
+    private static final int BYTES_PER_QUANTUM = 3;
+    private static final int SHIFT_1 = 6;
+    private static final int SHIFT_2 = 12;
+    private static final int SHIFT_3 = 18;
+    private static final int BYTE_SHIFT_1 = 8;
+    private static final int BYTE_SHIFT_2 = 16;
+    private static final int TAIL_SHIFT_1 = 4;
+    private static final int TAIL_SHIFT_2 = 2;
+    private static final int TAIL_SHIFT_3 = 10;
+    /** Bits of the last character of a two character tail which carry no data. */
+    private static final int TAIL_ONE_BYTE_UNUSED = 0x0F;
+    /** Bits of the last character of a three character tail which carry no data. */
+    private static final int TAIL_TWO_BYTES_UNUSED = 0x03;
+    private static final int CHAR_MASK = 0x3F;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int ASCII_SIZE = 128;
+    private static final char PAD = '=';
+    /** Bytes read at a time by the stream encoders. A multiple of 3 so that a full chunk encodes into whole groups. */
+    private static final int STREAM_CHUNK_SIZE = 3 * 4096;
+    /** Number of characters in an incomplete quantum which carry one byte. */
+    private static final int TAIL_ONE_BYTE = 2;
+    /** Number of characters in an incomplete quantum which carry two bytes. */
+    private static final int TAIL_TWO_BYTES = 3;
+
+    /** Characters of the URL safe alphabet. */
+    private static final char[] ENCODE_TABLE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    /** Value of each character of the URL safe and the standard alphabets, or -1. */
+    private static final byte[] DECODE_TABLE = new byte[ASCII_SIZE];
+
+    /** Value of each character of the URL safe alphabet only, or -1. */
+    private static final byte[] STRICT_DECODE_TABLE = new byte[ASCII_SIZE];
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        for (int i = 0; i < ENCODE_TABLE.length; i++) {
+            DECODE_TABLE[ENCODE_TABLE[i]] = (byte) i;
+        }
+        System.arraycopy(DECODE_TABLE, 0, STRICT_DECODE_TABLE, 0, ASCII_SIZE);
+        DECODE_TABLE['+'] = DECODE_TABLE['-'];
+        DECODE_TABLE['/'] = DECODE_TABLE['_'];
+    }
+
+    private Base64UrlCodec() {
+    }
+
+    /**
+     * Returns the number of characters the encoded form of the given number of bytes has.
+     * @param length number of bytes
+     * @return number of characters
+     */
+    public static int encodedLength(int length) {
+        return length / BYTES_PER_QUANTUM * CHARS_PER_QUANTUM + (length % BYTES_PER_QUANTUM * CHARS_PER_QUANTUM + 2)
+                / BYTES_PER_QUANTUM;
+    }
+
+    /**
+     * Returns the maximum number of bytes the given range of characters decodes into.
+     * @param length number of characters
+     * @return maximum number of bytes
+     */
+    public static int maxDecodedLength(int length) {
+        return length / CHARS_PER_QUANTUM * BYTES_PER_QUANTUM + Math.max(0, length % CHARS_PER_QUANTUM - 1);
+    }
+
+    /**
+     * Encodes bytes into characters.
+     * @param src source
+     * @param off offset of the source
+     * @param len number of bytes to encode
+     * @param dst destination, which must have room for {@link #encodedLength(int)} characters
+     * @param dstOff offset of the destination
+     * @return number of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        int in = off;
+        int out = dstOff;
+        int end = off + len - len % BYTES_PER_QUANTUM;
+        while (in < end) {
+            int bits = (src[in++] & BYTE_MASK) << BYTE_SHIFT_2 | (src[in++] & BYTE_MASK) << BYTE_SHIFT_1
+                    | (src[in++] & BYTE_MASK);
+            dst[out++] = ENCODE_TABLE[bits >>> SHIFT_3];
+            dst[out++] = ENCODE_TABLE[bits >>> SHIFT_2 & CHAR_MASK];
+            dst[out++] = ENCODE_TABLE[bits >>> SHIFT_1 & CHAR_MASK];
+            dst[out++] = ENCODE_TABLE[bits & CHAR_MASK];
+        }
+        int remaining = off + len - in;
+        if (remaining > 0) {
+            int bits = (src[in] & BYTE_MASK) << BYTE_SHIFT_2;
+            if (remaining > 1) {
+                bits |= (src[in + 1] & BYTE_MASK) << BYTE_SHIFT_1;
+            }
+            dst[out++] = ENCODE_TABLE[bits >>> SHIFT_3];
+            dst[out++] = ENCODE_TABLE[bits >>> SHIFT_2 & CHAR_MASK];
+            if (remaining > 1) {
+                dst[out++] = ENCODE_TABLE[bits >>> SHIFT_1 & CHAR_MASK];
+            }
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Encodes bytes into ASCII bytes.
+     * @param src source
+     * @param off offset of the source
+     * @param len number of bytes to encode
+     * @param dst destination, which must have room for {@link #encodedLength(int)} bytes
+     * @param dstOff offset of the destination
+     * @return number of bytes written
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int in = off;
+        int out = dstOff;
+        int end = off + len - len % BYTES_PER_QUANTUM;
+        while (in < end) {
+            int bits = (src[in++] & BYTE_MASK) << BYTE_SHIFT_2 | (src[in++] & BYTE_MASK) << BYTE_SHIFT_1
+                    | (src[in++] & BYTE_MASK);
+            dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_3];
+            dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_2 & CHAR_MASK];
+            dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_1 & CHAR_MASK];
+            dst[out++] = (byte) ENCODE_TABLE[bits & CHAR_MASK];
+        }
+        int remaining = off + len - in;
+        if (remaining > 0) {
+            int bits = (src[in] & BYTE_MASK) << BYTE_SHIFT_2;
+            if (remaining > 1) {
+                bits |= (src[in + 1] & BYTE_MASK) << BYTE_SHIFT_1;
+            }
+            dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_3];
+            dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_2 & CHAR_MASK];
+            if (remaining > 1) {
+                dst[out++] = (byte) ENCODE_TABLE[bits >>> SHIFT_1 & CHAR_MASK];
+            }
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Encodes the remaining bytes of a buffer into the remaining space of another buffer as ASCII.
+     * The positions of both buffers are advanced.
+     * @param src source
+     * @param dst destination, which must have room for {@link #encodedLength(int)} bytes
+     * @return number of bytes written
+     */
+    public static int encode(ByteBuffer src, ByteBuffer dst) {
+        int len = src.remaining();
+        int written;
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            if (dst.remaining() < encodedLength(len)) {
+                throw new BufferOverflowException();
+            }
+            written = encode(src.array(), src.arrayOffset() + src.position(), len,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + written);
+        } else {
+            byte[] in = new byte[len];
+            src.duplicate().get(in);
+            byte[] out = new byte[encodedLength(len)];
+            written = encode(in, 0, len, out, 0);
+            dst.put(out);
+        }
+        src.position(src.position() + len);
+        return written;
+    }
+
+    /**
+     * Encodes bytes into a string.
+     * @param src source
+     * @return base64url string without padding, or null if the source is null
+     */
+    public static String encodeToString(byte[] src) {
+        if (src == null) {
+            return null;
+        }
+        byte[] out = new byte[encodedLength(src.length)];
+        encode(src, 0, src.length, out, 0);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encodes a stream into a stream of ASCII bytes, reading and writing in chunks so that memory use is constant.
+     * Like the other encoders, no padding is written. The bytes of an incomplete 3 byte group are carried over
+     * to the next read, so the output equals that of encoding all bytes at once: only its last group may be
+     * shorter than 4 characters.
+     * Neither stream is closed.
+     * @param in source
+     * @param out destination
+     * @return number of bytes written
+     * @throws IOException when reading or writing fails
+     */
+    public static long encode(InputStream in, OutputStream out) throws IOException {
+        byte[] src = new byte[STREAM_CHUNK_SIZE];
+        byte[] dst = new byte[encodedLength(STREAM_CHUNK_SIZE)];
+        long total = 0;
+        int carry = 0;
+        int read;
+        while ((read = in.read(src, carry, src.length - carry)) != -1) {
+            int available = carry + read;
+            int whole = available - available % BYTES_PER_QUANTUM;
+            int written = encode(src, 0, whole, dst, 0);
+            out.write(dst, 0, written);
+            total += written;
+            carry = moveCarry(src, whole, available);
+        }
+        int written = encode(src, 0, carry, dst, 0);
+        out.write(dst, 0, written);
+        return total + written;
+    }
+
+    /**
+     * Encodes a stream into a character stream, reading and writing in chunks so that memory use is constant.
+     * Like the other encoders, no padding is written. The bytes of an incomplete 3 byte group are carried over
+     * to the next read, so the output equals that of encoding all bytes at once: only its last group may be
+     * shorter than 4 characters.
+     * Neither stream is closed.
+     * @param in source
+     * @param out destination
+     * @return number of characters written
+     * @throws IOException when reading or writing fails
+     */
+    public static long encode(InputStream in, Writer out) throws IOException {
+        byte[] src = new byte[STREAM_CHUNK_SIZE];
+        char[] dst = new char[encodedLength(STREAM_CHUNK_SIZE)];
+        long total = 0;
+        int carry = 0;
+        int read;
+        while ((read = in.read(src, carry, src.length - carry)) != -1) {
+            int available = carry + read;
+            int whole = available - available % BYTES_PER_QUANTUM;
+            int written = encode(src, 0, whole, dst, 0);
+            out.write(dst, 0, written);
+            total += written;
+            carry = moveCarry(src, whole, available);
+        }
+        int written = encode(src, 0, carry, dst, 0);
+        out.write(dst, 0, written);
+        return total + written;
+    }
+
+    /**
+     * Moves the bytes of an incomplete quantum to the head of the buffer so that the next read completes it.
+     */
+    private static int moveCarry(byte[] buf, int from, int to) {
+        int carry = to - from;
+        System.arraycopy(buf, from, buf, 0, carry);
+        return carry;
+    }
+
+    /**
+     * Decodes a range of characters leniently.
+     * @param src source
+     * @param start start index of the source, inclusive
+     * @param end end index of the source, exclusive
+     * @param dst destination, which must have room for {@link #maxDecodedLength(int)} bytes
+     * @param dstOff offset of the destination
+     * @return number of bytes written
+     */
+    public static int decode(CharSequence src, int start, int end, byte[] dst, int dstOff) {
+        int out = dstOff;
+        int bits = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = src.charAt(i);
+            if (c == PAD) {
+                break;
+            }
+            int value = value(c);
+            if (value < 0) {
+                continue;
+            }
+            bits = bits << BITS_PER_CHAR | value;
+            if (++count == CHARS_PER_QUANTUM) {
+                dst[out++] = (byte) (bits >> BYTE_SHIFT_2);
+                dst[out++] = (byte) (bits >> BYTE_SHIFT_1);
+                dst[out++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        return out - dstOff + tail(bits, count, dst, out);
+    }
+
+    /**
+     * Decodes a range of characters strictly.
+     * Only the URL safe alphabet is accepted. Pad characters, the characters '+' and '/' of the standard
+     * alphabet, a length which leaves a single character in the last quantum and a last character
+     * with non-zero bits beyond the data are rejected, so that every byte sequence has exactly one encoding.
+     * @param src source
+     * @param start start index of the source, inclusive
+     * @param end end index of the source, exclusive
+     * @param dst destination, which must have room for {@link #maxDecodedLength(int)} bytes
+     * @param dstOff offset of the destination
+     * @return number of bytes written, or -(index + 1) where index is the position of the first invalid character,
+     *     which is end when the length is invalid
+     */
+    public static int decodeStrict(CharSequence src, int start, int end, byte[] dst, int dstOff) {
+        if ((end - start) % CHARS_PER_QUANTUM == 1) {
+            return -(end + 1);
+        }
+        int out = dstOff;
+        int bits = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = src.charAt(i);
+            int value = -1;
+            if (c < ASCII_SIZE) {
+                value = STRICT_DECODE_TABLE[c];
+            }
+            if (value < 0) {
+                return -(i + 1);
+            }
+            bits = bits << BITS_PER_CHAR | value;
+            if (++count == CHARS_PER_QUANTUM) {
+                dst[out++] = (byte) (bits >> BYTE_SHIFT_2);
+                dst[out++] = (byte) (bits >> BYTE_SHIFT_1);
+                dst[out++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == TAIL_ONE_BYTE && (bits & TAIL_ONE_BYTE_UNUSED) != 0
+                || count == TAIL_TWO_BYTES && (bits & TAIL_TWO_BYTES_UNUSED) != 0) {
+            return -end;
+        }
+        return out - dstOff + tail(bits, count, dst, out);
+    }
+
+    /**
+     * Decodes characters leniently into the remaining space of a buffer. The position of the buffer is advanced.
+     * @param src source
+     * @param dst destination, which must have room for {@link #maxDecodedLength(int)} bytes
+     * @return number of bytes written
+     */
+    public static int decode(CharSequence src, ByteBuffer dst) {
+        int written;
+        if (dst.hasArray() && !dst.isReadOnly()) {
+            if (dst.remaining() < maxDecodedLength(src.length())) {
+                throw new BufferOverflowException();
+            }
+            written = decode(src, 0, src.length(), dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + written);
+        } else {
+            byte[] out = new byte[maxDecodedLength(src.length())];
+            written = decode(src, 0, src.length(), out, 0);
+            dst.put(out, 0, written);
+        }
+        return written;
+    }
+
+    /**
+     * Decodes characters leniently.
+     * @param src source
+     * @return decoded bytes, or null if the source is null
+     */
+    public static byte[] decode(CharSequence src) {
+        if (src == null) {
+            return null;
+        }
+        int length = src.length();
+        int chars = 0;
+        for (int i = 0; i < length; i++) {
+            char c = src.charAt(i);
+            if (c == PAD) {
+                break;
+            }
+            if (value(c) >= 0) {
+                chars++;
+            }
+        }
+        byte[] out = new byte[maxDecodedLength(chars)];
+        decode(src, 0, length, out, 0);
+        return out;
+    }
+
+    private static int value(char c) {
+        if (c >= ASCII_SIZE) {
+            return -1;
+        }
+        return DECODE_TABLE[c];
+    }
+
+    /**
+     * Writes the bytes of an incomplete quantum. A single leftover character carries no complete byte.
+     */
+    private static int tail(int bits, int count, byte[] dst, int out) {
+        if (count == TAIL_ONE_BYTE) {
+            dst[out] = (byte) (bits >> TAIL_SHIFT_1);
+            return 1;
+        }
+        if (count == TAIL_TWO_BYTES) {
+            dst[out] = (byte) (bits >> TAIL_SHIFT_3);
+            dst[out + 1] = (byte) (bits >> TAIL_SHIFT_2);
+            return 2;
+        }
+        return 0;
+    }
+}
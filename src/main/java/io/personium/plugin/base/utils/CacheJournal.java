@@ -0,0 +1,370 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheEntrySerializer;
+import org.apache.http.impl.client.cache.DefaultHttpCacheEntrySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only file which persists the entries of {@link DocumentCacheStorage} across restarts.
+ * Every put and remove is appended as a record. The file is replayed on startup, and it is rewritten with
+ * only the live entries when it grows beyond its size limit.
+ * A record which is cut short by a crash is discarded together with everything after it.
+ * <p>
+ * A record is an operation byte and a key of int length and UTF-8 bytes, followed for a put by
+ * the serialized entry of int length. Compaction writes the live entries to a temporary file without
+ * blocking appends; the records appended meanwhile are copied to its end before it replaces the journal.
+ */
+final class CacheJournal implements Closeable {
+
+    static Logger log = LoggerFactory.getLogger(CacheJournal.class);
+
+    /** Name of the journal file in the cache directory. */
+    static final String FILE_NAME = "http-cache.journal";
+
+    /** Magic number at the head of the file, "PHC2". */
+    private static final int MAGIC = 0x50484332;
+    private static final int HEADER_LENGTH = Integer.BYTES;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int COMPACTION_DIVISOR = 4;
+    /** Upper bound of a key length, against reading a huge length from a broken record. */
+    private static final int MAX_KEY_BYTES = 1024 * 1024;
+
+    private final File file;
+    private final long maxBytes;
+    private final HttpCacheEntrySerializer serializer = new DefaultHttpCacheEntrySerializer();
+    private OutputStream out;
+    private long length;
+    /** Records appended since the running compaction took its snapshot, or null when not compacting. */
+    private ByteArrayOutputStream tail;
+
+    /**
+     * Constructor.
+     * @param dir directory of the journal file
+     * @param maxBytes maximum size of the journal file
+     */
+    CacheJournal(File dir, long maxBytes) {
+        this.file = new File(dir, FILE_NAME);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Replays the journal and opens it for appending.
+     * @return live entries in the order they were written
+     * @throws IOException when the directory or the file cannot be used
+     */
+    synchronized LinkedHashMap<String, HttpCacheEntry> load() throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        LinkedHashMap<String, HttpCacheEntry> entries = new LinkedHashMap<>();
+        long validLength = 0;
+        if (file.isFile()) {
+            validLength = replay(entries);
+        }
+        if (validLength < HEADER_LENGTH) {
+            entries.clear();
+            File tmp = tmpFile();
+            writeEntries(tmp, entries);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            openAppender();
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+            openAppender();
+        }
+        return entries;
+    }
+
+    /**
+     * Appends a put record.
+     * @param key cache key
+     * @param entry entry
+     * @throws IOException when writing fails
+     */
+    void appendPut(String key, HttpCacheEntry entry) throws IOException {
+        append(record(OP_PUT, key, serialize(entry)));
+    }
+
+    /**
+     * Appends a remove record.
+     * @param key cache key
+     * @throws IOException when writing fails
+     */
+    void appendRemove(String key) throws IOException {
+        append(record(OP_REMOVE, key, null));
+    }
+
+    /**
+     * @return true if the journal has grown beyond its limit and no compaction is running
+     */
+    synchronized boolean needsCompaction() {
+        return tail == null && length > maxBytes;
+    }
+
+    /**
+     * Starts capturing appended records for {@link #compact(Map)}.
+     * Must be called together with taking the snapshot of the live entries, so that no record falls between them.
+     */
+    synchronized void beginCompaction() {
+        tail = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Rewrites the journal so that it holds only the given entries and the records appended
+     * since {@link #beginCompaction()}.
+     * The eldest entries are dropped when the live entries alone exceed the size limit.
+     * Those entries stay in memory and are only missing after a restart.
+     * Appends are blocked only while the captured records are copied and the file is replaced.
+     * @param live snapshot of the live entries, eldest first
+     * @throws IOException when writing fails
+     */
+    void compact(Map<String, HttpCacheEntry> live) throws IOException {
+        File tmp = tmpFile();
+        try {
+            writeEntries(tmp, live);
+            replaceWith(tmp);
+        } finally {
+            synchronized (this) {
+                tail = null;
+            }
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private synchronized void append(byte[] record) throws IOException {
+        if (out == null) {
+            throw new IOException("HTTP cache journal is closed: " + file);
+        }
+        out.write(record);
+        out.flush();
+        length += record.length;
+        if (tail != null) {
+            tail.write(record);
+        }
+    }
+
+    private synchronized void replaceWith(File tmp) throws IOException {
+        if (out == null) {
+            // closed while compacting
+            return;
+        }
+        try (OutputStream tmpOut = new FileOutputStream(tmp, true)) {
+            tail.writeTo(tmpOut);
+        }
+        close();
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openAppender();
+    }
+
+    private long replay(Map<String, HttpCacheEntry> entries) throws IOException {
+        long valid = 0;
+        long fileLength = file.length();
+        try (CountingInput in = new CountingInput(file)) {
+            if (in.data.readInt() != MAGIC) {
+                log.info("Ignoring HTTP cache journal of unknown format: " + file);
+                return 0;
+            }
+            valid = in.count();
+            while (true) {
+                byte op = in.data.readByte();
+                String key = readKey(in.data);
+                if (op == OP_PUT) {
+                    byte[] body = new byte[readBodyLength(in, fileLength)];
+                    in.data.readFully(body);
+                    entries.remove(key);
+                    entries.put(key, serializer.readFrom(new ByteArrayInputStream(body)));
+                } else if (op == OP_REMOVE) {
+                    entries.remove(key);
+                } else {
+                    throw new IOException("Unknown record type " + op);
+                }
+                valid = in.count();
+            }
+        } catch (EOFException e) {
+            return valid;
+        } catch (IOException | RuntimeException e) {
+            log.info("HTTP cache journal is broken after " + valid + " bytes. " + e.getMessage());
+            return valid;
+        }
+    }
+
+    /**
+     * Reads the length of a serialized entry. A length which cannot fit in the journal, or in what is left
+     * of the file, comes from a torn or corrupt record and must not be allocated.
+     */
+    private int readBodyLength(CountingInput in, long fileLength) throws IOException {
+        int bodyLength = in.data.readInt();
+        if (bodyLength < 0 || bodyLength > maxBytes || bodyLength > fileLength - in.count()) {
+            throw new IOException("Invalid entry length " + bodyLength);
+        }
+        return bodyLength;
+    }
+
+    private static String readKey(DataInputStream in) throws IOException {
+        int keyLength = in.readInt();
+        if (keyLength < 0 || keyLength > MAX_KEY_BYTES) {
+            throw new IOException("Invalid key length " + keyLength);
+        }
+        byte[] key = new byte[keyLength];
+        in.readFully(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private void writeEntries(File target, Map<String, HttpCacheEntry> live) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long total = HEADER_LENGTH;
+        for (Map.Entry<String, HttpCacheEntry> entry : live.entrySet()) {
+            byte[] record = record(OP_PUT, entry.getKey(), serialize(entry.getValue()));
+            records.add(record);
+            total += record.length;
+        }
+        // Leave room for appends so that a full journal is not rewritten on every put
+        long limit = maxBytes;
+        if (total > maxBytes) {
+            limit = maxBytes / COMPACTION_DIVISOR * (COMPACTION_DIVISOR - 1);
+        }
+        int first = 0;
+        while (total > limit && first < records.size()) {
+            total -= records.get(first).length;
+            first++;
+        }
+        try (DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)))) {
+            tmpOut.writeInt(MAGIC);
+            for (int i = first; i < records.size(); i++) {
+                tmpOut.write(records.get(i));
+            }
+        }
+    }
+
+    private File tmpFile() {
+        return new File(file.getParentFile(), FILE_NAME + ".tmp");
+    }
+
+    private void openAppender() throws IOException {
+        length = file.length();
+        out = new BufferedOutputStream(new FileOutputStream(file, true));
+    }
+
+    private static byte[] record(byte op, String key, byte[] body) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(baos);
+        data.writeByte(op);
+        data.writeInt(keyBytes.length);
+        data.write(keyBytes);
+        if (body != null) {
+            data.writeInt(body.length);
+            data.write(body);
+        }
+        data.flush();
+        return baos.toByteArray();
+    }
+
+    private byte[] serialize(HttpCacheEntry entry) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.writeTo(entry, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Input of the journal file which counts the bytes consumed.
+     */
+    private static final class CountingInput implements Closeable {
+        private final CountingStream counter;
+        private final DataInputStream data;
+
+        CountingInput(File file) throws IOException {
+            counter = new CountingStream(new BufferedInputStream(Files.newInputStream(file.toPath())));
+            data = new DataInputStream(counter);
+        }
+
+        long count() {
+            return counter.count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            data.close();
+        }
+    }
+
+    /**
+     * Stream which counts the bytes read.
+     */
+    private static final class CountingStream extends FilterInputStream {
+        private long count;
+
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Circuit breaker of outbound requests to a host.
+ * After a number of consecutive failures the breaker opens and requests fail fast.
+ * Once the open duration has elapsed a single trial request is let through,
+ * and its result decides whether the breaker closes or opens again.
+ */
+public final class CircuitBreaker {
+
+    static Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * State of a breaker.
+     */
+    public enum State {
+        /** Requests are allowed. */
+        CLOSED,
+        /** Requests fail fast. */
+        OPEN,
+        /** A single trial request is allowed. */
+        HALF_OPEN
+    }
+
+    private static final ConcurrentHashMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private final String host;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInProgress = new AtomicBoolean();
+    private volatile long openUntil;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Returns the breaker of the given host.
+     * @param host host name
+     * @return breaker
+     */
+    public static CircuitBreaker forHost(String host) {
+        String key = String.valueOf(host).toLowerCase(Locale.ROOT);
+        CircuitBreaker breaker = BREAKERS.get(key);
+        if (breaker == null) {
+            breaker = BREAKERS.computeIfAbsent(key, CircuitBreaker::new);
+        }
+        return breaker;
+    }
+
+    /**
+     * Checks whether a request may be sent now.
+     * @return true if the request is allowed
+     */
+    public boolean allowRequest() {
+        if (openUntil == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() < openUntil) {
+            return false;
+        }
+        // Open duration elapsed. Only one caller runs the trial request.
+        return trialInProgress.compareAndSet(false, true);
+    }
+
+    /**
+     * Records a successful request.
+     */
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (openUntil != 0) {
+            log.info("Circuit to " + host + " closed.");
+            openUntil = 0;
+        }
+        trialInProgress.set(false);
+    }
+
+    /**
+     * Records a failed request.
+     */
+    public void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        int threshold = PluginConfig.getInt(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD,
+                PluginConfig.Http.DEFAULT_BREAKER_FAILURE_THRESHOLD);
+        if (threshold > 0 && (failures >= threshold || trialInProgress.get())) {
+            long openMillis = PluginConfig.getInt(PluginConfig.Http.BREAKER_OPEN_DURATION,
+                    PluginConfig.Http.DEFAULT_BREAKER_OPEN_DURATION);
+            openUntil = System.currentTimeMillis() + openMillis;
+            log.info("Circuit to " + host + " opened for " + openMillis + " ms after " + failures + " failures.");
+        }
+        trialInProgress.set(false);
+    }
+
+    /**
+     * Records a request which ended without telling whether the host is healthy,
+     * such as one which failed locally. A trial request in progress may be retried by the next caller.
+     */
+    public void recordInconclusive() {
+        trialInProgress.set(false);
+    }
+
+    /**
+     * @return current state
+     */
+    public State getState() {
+        if (openUntil == 0) {
+            return State.CLOSED;
+        }
+        if (System.currentTimeMillis() < openUntil) {
+            return State.OPEN;
+        }
+        return State.HALF_OPEN;
+    }
+}
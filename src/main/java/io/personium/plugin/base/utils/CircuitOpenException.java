@@ -0,0 +1,36 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+
+/**
+ * Thrown without sending a request when the {@link CircuitBreaker} of the target host is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     * @param host host whose circuit is open
+     */
+    public CircuitOpenException(String host) {
+        super("Circuit to " + host + " is open.");
+    }
+}
@@ -0,0 +1,507 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.cache.HeaderConstants;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheStorage;
+import org.apache.http.client.cache.HttpCacheUpdateCallback;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory storage of the HTTP cache used for IdP metadata such as OIDC discovery documents and JWKS.
+ * Entries are evicted in LRU order when either the entry count or the total body size exceeds its limit.
+ * The freshness lifetime which the server advertises is clamped between the configured minimum and maximum,
+ * and stale-while-revalidate is added so that an expired document is served while it is revalidated.
+ * When persistence is enabled, changes are also written to a {@link CacheJournal} so that entries survive restarts.
+ * Restored entries keep their validators and are revalidated with a conditional request once they expire.
+ */
+public class DocumentCacheStorage implements HttpCacheStorage {
+
+    static Logger log = LoggerFactory.getLogger(DocumentCacheStorage.class);
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final String S_MAX_AGE = "s-maxage";
+    private static final int DEFAULT_HTTP_PORT = 80;
+    private static final int DEFAULT_HTTPS_PORT = 443;
+
+    private final LinkedHashMap<String, HttpCacheEntry> entries =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    private int maxEntries;
+    private long maxBytes;
+    private long minTtlSeconds;
+    private long maxTtlSeconds;
+    private long staleWhileRevalidateSeconds;
+    private long totalBytes;
+    private CacheJournal journal;
+    /** Journal being replayed by {@link #enablePersistence(File, long)}, or null. */
+    private CacheJournal restoring;
+    /** Keys removed while {@link #restoring} is replayed, which must not be restored. */
+    private final Set<String> removedWhileRestoring = new HashSet<>();
+    private boolean compactionScheduled;
+
+    private static ExecutorService journalExecutor;
+
+    /**
+     * Constructor.
+     * @param maxEntries maximum number of entries
+     * @param maxBytes maximum total size of cached bodies in bytes
+     * @param minTtlSeconds minimum freshness lifetime in seconds
+     * @param maxTtlSeconds maximum freshness lifetime in seconds
+     * @param staleWhileRevalidateSeconds seconds a stale entry may be served while it is revalidated
+     */
+    public DocumentCacheStorage(int maxEntries, long maxBytes, long minTtlSeconds, long maxTtlSeconds,
+            long staleWhileRevalidateSeconds) {
+        setLimits(maxEntries, maxBytes, minTtlSeconds, maxTtlSeconds, staleWhileRevalidateSeconds);
+    }
+
+    /**
+     * Changes the limits. Entries over the new size limits are evicted immediately.
+     * @param newMaxEntries maximum number of entries
+     * @param newMaxBytes maximum total size of cached bodies in bytes
+     * @param newMinTtlSeconds minimum freshness lifetime in seconds
+     * @param newMaxTtlSeconds maximum freshness lifetime in seconds
+     * @param newStaleWhileRevalidateSeconds seconds a stale entry may be served while it is revalidated
+     */
+    public final synchronized void setLimits(int newMaxEntries, long newMaxBytes, long newMinTtlSeconds,
+            long newMaxTtlSeconds, long newStaleWhileRevalidateSeconds) {
+        this.maxEntries = newMaxEntries;
+        this.maxBytes = newMaxBytes;
+        this.minTtlSeconds = newMinTtlSeconds;
+        this.maxTtlSeconds = Math.max(newMinTtlSeconds, newMaxTtlSeconds);
+        this.staleWhileRevalidateSeconds = newStaleWhileRevalidateSeconds;
+        evict();
+    }
+
+    /**
+     * Persists entries in the given directory, restoring the entries persisted there before.
+     * The journal is replayed on a background thread, so that callers such as the client pool do not wait for
+     * the disk. Entries put or removed in the meantime take precedence over restored ones, and the journal is
+     * rewritten with the merged set. When the directory cannot be used, the cache stays in memory only.
+     * @param dir directory of the journal file
+     * @param maxDiskBytes maximum size of the journal file in bytes
+     */
+    public synchronized void enablePersistence(File dir, long maxDiskBytes) {
+        disablePersistence();
+        CacheJournal opened = new CacheJournal(dir, maxDiskBytes);
+        restoring = opened;
+        journalExecutor().execute(() -> restore(opened, dir));
+    }
+
+    /**
+     * Replays a journal and starts persisting to it, unless persistence was disabled or moved meanwhile.
+     */
+    private void restore(CacheJournal opened, File dir) {
+        Map<String, HttpCacheEntry> restored;
+        try {
+            restored = opened.load();
+        } catch (IOException | RuntimeException e) {
+            log.info("Failed to open HTTP cache journal in " + dir + ". Cache is kept in memory only. "
+                    + e.getMessage());
+            closeQuietly(opened);
+            synchronized (this) {
+                if (restoring == opened) {
+                    restoring = null;
+                    removedWhileRestoring.clear();
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (restoring != opened) {
+                closeQuietly(opened);
+                return;
+            }
+            restoring = null;
+            int count = 0;
+            for (Map.Entry<String, HttpCacheEntry> restoredEntry : restored.entrySet()) {
+                String key = restoredEntry.getKey();
+                if (!entries.containsKey(key) && !removedWhileRestoring.contains(key)) {
+                    entries.put(key, restoredEntry.getValue());
+                    totalBytes += size(restoredEntry.getValue());
+                    count++;
+                }
+            }
+            removedWhileRestoring.clear();
+            evict();
+            journal = opened;
+            compactJournal();
+            log.info("Restored " + count + " HTTP cache entries from " + dir + ".");
+        }
+    }
+
+    /**
+     * Stops persisting entries. Entries in memory are kept.
+     */
+    public synchronized void disablePersistence() {
+        restoring = null;
+        removedWhileRestoring.clear();
+        if (journal != null) {
+            closeQuietly(journal);
+            journal = null;
+        }
+    }
+
+    @Override
+    public synchronized void putEntry(String key, HttpCacheEntry entry) throws IOException {
+        HttpCacheEntry clamped = clampLifetime(entry);
+        remove(key);
+        entries.put(key, clamped);
+        totalBytes += size(clamped);
+        journalPut(key, clamped);
+        evict();
+    }
+
+    @Override
+    public synchronized HttpCacheEntry getEntry(String key) throws IOException {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void removeEntry(String key) throws IOException {
+        remove(key);
+    }
+
+    @Override
+    public synchronized void updateEntry(String key, HttpCacheUpdateCallback callback) throws IOException {
+        HttpCacheEntry existing = entries.get(key);
+        HttpCacheEntry updated = callback.update(existing);
+        if (updated == null) {
+            remove(key);
+            return;
+        }
+        putEntry(key, updated);
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return total size of cached bodies in bytes
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the freshness lifetime of the cached response of a URL, after clamping.
+     * @param url URL of a GET request
+     * @return lifetime in seconds, or -1 if the URL is not cached or must always be revalidated
+     */
+    public synchronized long getFreshnessLifetime(String url) {
+        HttpCacheEntry entry = entries.get(cacheKey(url));
+        if (entry == null) {
+            return -1;
+        }
+        for (Header header : entry.getHeaders(HeaderConstants.CACHE_CONTROL)) {
+            for (HeaderElement elt : header.getElements()) {
+                if (HeaderConstants.CACHE_CONTROL_MAX_AGE.equalsIgnoreCase(elt.getName())) {
+                    return parseSeconds(elt.getValue());
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key under which the caching client stores a GET response of the URL,
+     * i.e. the URL with lower-case scheme and host, an explicit port and a non-empty path.
+     * @param url URL
+     * @return cache key, or the URL itself if it cannot be parsed
+     */
+    static String cacheKey(String url) {
+        try {
+            URI uri = URI.create(url).normalize();
+            if (uri.getHost() == null) {
+                return url;
+            }
+            String scheme = "http";
+            if (uri.getScheme() != null) {
+                scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            }
+            int port = uri.getPort();
+            if (port < 0) {
+                port = DEFAULT_HTTP_PORT;
+                if ("https".equals(scheme)) {
+                    port = DEFAULT_HTTPS_PORT;
+                }
+            }
+            StringBuilder key = new StringBuilder(scheme).append("://")
+                    .append(uri.getHost().toLowerCase(Locale.ROOT)).append(':').append(port);
+            String path = uri.getRawPath();
+            if (path == null || path.isEmpty()) {
+                path = "/";
+            }
+            key.append(path);
+            if (uri.getRawQuery() != null) {
+                key.append('?').append(uri.getRawQuery());
+            }
+            return key.toString();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+        compactJournal();
+    }
+
+    private void remove(String key) {
+        if (restoring != null) {
+            removedWhileRestoring.add(key);
+        }
+        HttpCacheEntry old = entries.remove(key);
+        if (old != null) {
+            totalBytes -= size(old);
+            journalRemove(key);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, HttpCacheEntry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes)) {
+            Map.Entry<String, HttpCacheEntry> eldest = it.next();
+            it.remove();
+            totalBytes -= size(eldest.getValue());
+            journalRemove(eldest.getKey());
+        }
+    }
+
+    private void journalPut(String key, HttpCacheEntry entry) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendPut(key, entry);
+        } catch (IOException e) {
+            journalFailed(e);
+            return;
+        }
+        if (journal.needsCompaction()) {
+            compactJournal();
+        }
+    }
+
+    private void journalRemove(String key) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendRemove(key);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    /**
+     * Schedules a compaction of the journal on the background thread, unless one is already scheduled.
+     */
+    private void compactJournal() {
+        if (journal == null || compactionScheduled) {
+            return;
+        }
+        compactionScheduled = true;
+        CacheJournal target = journal;
+        journalExecutor().execute(() -> compact(target));
+    }
+
+    /**
+     * Compacts the journal. Only taking the snapshot holds the lock of this storage;
+     * serializing and writing the entries does not block requests.
+     */
+    private void compact(CacheJournal target) {
+        Map<String, HttpCacheEntry> live;
+        synchronized (this) {
+            compactionScheduled = false;
+            if (journal != target) {
+                return;
+            }
+            live = new LinkedHashMap<>(entries);
+            target.beginCompaction();
+        }
+        try {
+            // Entries which do not fit on disk stay in memory and are simply not restored after a restart
+            target.compact(live);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (journal == target) {
+                    journalFailed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Thread which replays and compacts journals. A single thread keeps a replay ahead of the compaction it triggers.
+     */
+    private static synchronized ExecutorService journalExecutor() {
+        if (journalExecutor == null) {
+            journalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "personium-http-cache-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return journalExecutor;
+    }
+
+    private void journalFailed(Exception e) {
+        log.info("Failed to write HTTP cache journal. Cache is kept in memory only. " + e.getMessage());
+        closeQuietly(journal);
+        journal = null;
+    }
+
+    private static void closeQuietly(CacheJournal target) {
+        try {
+            target.close();
+        } catch (IOException e) {
+            log.info("Failed to close HTTP cache journal. " + e.getMessage());
+        }
+    }
+
+    private static long size(HttpCacheEntry entry) {
+        if (entry.getResource() == null) {
+            return 0;
+        }
+        return entry.getResource().length();
+    }
+
+    /**
+     * Rewrites Cache-Control so that the freshness lifetime stays between the minimum and maximum TTL.
+     * Responses which must always be revalidated are kept as they are.
+     * @param entry entry to store
+     * @return entry with clamped lifetime
+     */
+    HttpCacheEntry clampLifetime(HttpCacheEntry entry) {
+        List<String> directives = new ArrayList<>();
+        long lifetime = -1;
+        long sharedLifetime = -1;
+        boolean hasStaleWhileRevalidate = false;
+        for (Header header : entry.getHeaders(HeaderConstants.CACHE_CONTROL)) {
+            for (HeaderElement elt : header.getElements()) {
+                String name = elt.getName();
+                if (HeaderConstants.CACHE_CONTROL_NO_CACHE.equalsIgnoreCase(name)
+                        || HeaderConstants.CACHE_CONTROL_NO_STORE.equalsIgnoreCase(name)) {
+                    return entry;
+                }
+                if (HeaderConstants.CACHE_CONTROL_MAX_AGE.equalsIgnoreCase(name)) {
+                    lifetime = parseSeconds(elt.getValue());
+                    continue;
+                }
+                if (S_MAX_AGE.equalsIgnoreCase(name)) {
+                    sharedLifetime = parseSeconds(elt.getValue());
+                    continue;
+                }
+                if (HeaderConstants.STALE_WHILE_REVALIDATE.equalsIgnoreCase(name)) {
+                    hasStaleWhileRevalidate = true;
+                }
+                if (elt.getValue() == null) {
+                    directives.add(name);
+                } else {
+                    directives.add(name + "=" + elt.getValue());
+                }
+            }
+        }
+        if (sharedLifetime >= 0) {
+            // s-maxage takes precedence in a shared cache
+            lifetime = sharedLifetime;
+        }
+        if (lifetime < 0) {
+            lifetime = expiresLifetime(entry);
+        }
+        if (lifetime < 0) {
+            // No explicit lifetime. Use the minimum instead of the heuristic based on Last-Modified,
+            // which is close to zero for documents that have just been updated.
+            lifetime = minTtlSeconds;
+        }
+        long clamped = Math.min(maxTtlSeconds, Math.max(minTtlSeconds, lifetime));
+        directives.add(HeaderConstants.CACHE_CONTROL_MAX_AGE + "=" + clamped);
+        if (!hasStaleWhileRevalidate && staleWhileRevalidateSeconds > 0) {
+            directives.add(HeaderConstants.STALE_WHILE_REVALIDATE + "=" + staleWhileRevalidateSeconds);
+        }
+
+        List<Header> headers = new ArrayList<>();
+        for (Header header : entry.getAllHeaders()) {
+            if (!HeaderConstants.CACHE_CONTROL.equalsIgnoreCase(header.getName())
+                    && !HttpHeaders.EXPIRES.equalsIgnoreCase(header.getName())) {
+                headers.add(header);
+            }
+        }
+        headers.add(new BasicHeader(HeaderConstants.CACHE_CONTROL, String.join(", ", directives)));
+        return new HttpCacheEntry(entry.getRequestDate(), entry.getResponseDate(), entry.getStatusLine(),
+                headers.toArray(new Header[0]), entry.getResource(), entry.getVariantMap(),
+                entry.getRequestMethod());
+    }
+
+    private static long expiresLifetime(HttpCacheEntry entry) {
+        Header expiresHeader = entry.getFirstHeader(HttpHeaders.EXPIRES);
+        Date date = entry.getDate();
+        if (expiresHeader == null || date == null) {
+            return -1;
+        }
+        Date expires = DateUtils.parseDate(expiresHeader.getValue());
+        if (expires == null) {
+            return 0;
+        }
+        return Math.max(0, (expires.getTime() - date.getTime()) / MILLIS_PER_SECOND);
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table driven hexadecimal codec which encodes into and decodes from caller supplied buffers.
+ * Encoding produces lower case digits. Decoding accepts both cases.
+ */
+public final class HexCodec {
+
+    private static final int BITS_PER_DIGIT = 4;
+    private static final int DIGIT_MASK = 0x0F;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_VALUES = 256;
+    private static final int ASCII_SIZE = 128;
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Both digits of each byte value, upper digit first. */
+    private static final char[] PAIRS = new char[BYTE_VALUES * 2];
+
+    /** Value of each hexadecimal digit, or -1. */
+    private static final byte[] DECODE_TABLE = new byte[ASCII_SIZE];
+
+    static {
+        for (int i = 0; i < BYTE_VALUES; i++) {
+            PAIRS[i * 2] = DIGITS[i >>> BITS_PER_DIGIT];
+            PAIRS[i * 2 + 1] = DIGITS[i & DIGIT_MASK];
+        }
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            DECODE_TABLE[DIGITS[i]] = (byte) i;
+            DECODE_TABLE[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * Encodes bytes into characters.
+     * @param src source
+     * @param off offset of the source
+     * @param len number of bytes to encode
+     * @param dst destination, which must have room for len * 2 characters
+     * @param dstOff offset of the destination
+     * @return number of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        int out = dstOff;
+        for (int i = off; i < off + len; i++) {
+            int pair = (src[i] & BYTE_MASK) * 2;
+            dst[out++] = PAIRS[pair];
+            dst[out++] = PAIRS[pair + 1];
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Encodes bytes into ASCII bytes.
+     * @param src source
+     * @param off offset of the source
+     * @param len number of bytes to encode
+     * @param dst destination, which must have room for len * 2 bytes
+     * @param dstOff offset of the destination
+     * @return number of bytes written
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int out = dstOff;
+        for (int i = off; i < off + len; i++) {
+            int pair = (src[i] & BYTE_MASK) * 2;
+            dst[out++] = (byte) PAIRS[pair];
+            dst[out++] = (byte) PAIRS[pair + 1];
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Encodes bytes into a string.
+     * @param src source
+     * @return lower case hexadecimal string
+     */
+    public static String encodeToString(byte[] src) {
+        byte[] out = new byte[src.length * 2];
+        encode(src, 0, src.length, out, 0);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodes a range of characters.
+     * @param src source
+     * @param start start index of the source, inclusive
+     * @param end end index of the source, exclusive
+     * @param dst destination, which must have room for (end - start) / 2 bytes
+     * @param dstOff offset of the destination
+     * @return number of bytes written
+     * @throws IllegalArgumentException if the number of characters is odd or a character is not a hexadecimal digit
+     */
+    public static int decode(CharSequence src, int start, int end, byte[] dst, int dstOff) {
+        if ((end - start) % 2 != 0) {
+            throw new IllegalArgumentException("Odd number of hexadecimal digits: " + (end - start));
+        }
+        int out = dstOff;
+        for (int i = start; i < end; i += 2) {
+            dst[out++] = (byte) (digit(src, i) << BITS_PER_DIGIT | digit(src, i + 1));
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Decodes characters.
+     * @param src source
+     * @return decoded bytes
+     * @throws IllegalArgumentException if the number of characters is odd or a character is not a hexadecimal digit
+     */
+    public static byte[] decode(CharSequence src) {
+        byte[] out = new byte[src.length() / 2];
+        decode(src, 0, src.length(), out, 0);
+        return out;
+    }
+
+    private static int digit(CharSequence src, int index) {
+        char c = src.charAt(index);
+        int value = -1;
+        if (c < ASCII_SIZE) {
+            value = DECODE_TABLE[c];
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid hexadecimal digit at " + index + ": " + c);
+        }
+        return value;
+    }
+}
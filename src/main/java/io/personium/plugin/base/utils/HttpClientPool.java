@@ -0,0 +1,374 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.ConfigChangeListener;
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Holder of the pooled HTTP client shared by outbound requests of plugins.
+ * One client is kept per proxy, pool and cache configuration, and it is rebuilt only when that configuration changes.
+ * Responses are cached in a {@link DocumentCacheStorage} which honors Cache-Control and Expires,
+ * and revalidates expired documents with ETag and Last-Modified.
+ */
+public final class HttpClientPool {
+
+    static Logger log = LoggerFactory.getLogger(HttpClientPool.class);
+
+    /** Client currently in use. */
+    private static volatile Holder current;
+
+    /** Interval in milliseconds at which a replaced client is checked for requests still running on it. */
+    private static final long DRAIN_CHECK_INTERVAL = 1000;
+    /** A replaced client is closed at the latest after this many times the timeouts of a single request. */
+    private static final int RETIRE_GRACE_FACTOR = 2;
+
+    /** Closes replaced clients. Created when a client is first replaced. */
+    private static ScheduledExecutorService retirementExecutor;
+
+    /** Cache storage shared by all clients so that a rebuild does not drop cached documents. */
+    private static final DocumentCacheStorage CACHE_STORAGE = new DocumentCacheStorage(
+            PluginConfig.Http.DEFAULT_CACHE_MAX_ENTRIES, PluginConfig.Http.DEFAULT_CACHE_MAX_BYTES,
+            PluginConfig.Http.DEFAULT_CACHE_MIN_TTL, PluginConfig.Http.DEFAULT_CACHE_MAX_TTL,
+            PluginConfig.Http.DEFAULT_CACHE_STALE_WHILE_REVALIDATE);
+
+    static {
+        // Rebuild the client as soon as its configuration changes instead of on the next request
+        ConfigChangeListener rebuild = event -> {
+            if (current != null) {
+                getClient();
+            }
+        };
+        PluginConfig.addChangeListener(PluginConfig.Http.HTTP, rebuild);
+        PluginConfig.addChangeListener(PluginConfig.Proxy.PROXY, rebuild);
+    }
+
+    private HttpClientPool() {
+    }
+
+    /**
+     * Returns the shared client for the current configuration.
+     * The returned client must not be closed by the caller.
+     * @return shared client
+     */
+    public static CloseableHttpClient getClient() {
+        Settings settings = Settings.load();
+        Holder holder = current;
+        if (holder != null && holder.settings.equals(settings)) {
+            return holder.client;
+        }
+        synchronized (HttpClientPool.class) {
+            holder = current;
+            if (holder != null && holder.settings.equals(settings)) {
+                return holder.client;
+            }
+            Holder created = build(settings);
+            current = created;
+            if (holder != null) {
+                log.info("HTTP client configuration changed. Rebuilding connection pool.");
+                retire(holder);
+            }
+            return created.client;
+        }
+    }
+
+    /**
+     * Closes the shared client and releases all pooled connections.
+     * A new client is created on the next call of {@link #getClient()}.
+     */
+    public static synchronized void shutdown() {
+        Holder holder = current;
+        current = null;
+        if (holder != null) {
+            closeQuietly(holder.client);
+        }
+    }
+
+    /**
+     * Returns the storage of the HTTP cache shared by the clients.
+     * @return cache storage
+     */
+    public static DocumentCacheStorage getCacheStorage() {
+        return CACHE_STORAGE;
+    }
+
+    /**
+     * Closes a replaced client once the requests still running on it have completed.
+     * The pool is checked periodically and closed when no connection is leased or waited for,
+     * or at the latest when a request started just before the replacement must have timed out.
+     */
+    private static void retire(Holder holder) {
+        long maxRequestMillis = (long) holder.settings.connectionRequestTimeout + holder.settings.connectTimeout
+                + holder.settings.socketTimeout;
+        long deadline = System.currentTimeMillis() + RETIRE_GRACE_FACTOR * maxRequestMillis;
+        retirementExecutor().schedule(new Retirement(holder, deadline), DRAIN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService retirementExecutor() {
+        if (retirementExecutor == null) {
+            retirementExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "personium-http-client-retirement");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return retirementExecutor;
+    }
+
+    private static Holder build(Settings settings) {
+        PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        connManager.setMaxTotal(settings.maxTotal);
+        connManager.setDefaultMaxPerRoute(settings.maxPerRoute);
+
+        CACHE_STORAGE.setLimits(settings.cacheMaxEntries, settings.cacheMaxBytes,
+                settings.cacheMinTtl, settings.cacheMaxTtl, settings.cacheStaleWhileRevalidate);
+        if (ProxyUtils.isValid(settings.cacheDir)) {
+            CACHE_STORAGE.enablePersistence(new File(settings.cacheDir), settings.cacheDiskMaxBytes);
+        } else {
+            CACHE_STORAGE.disablePersistence();
+        }
+        CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxCacheEntries(settings.cacheMaxEntries)
+                .setMaxObjectSize(settings.maxResponseSize)
+                .setSharedCache(true)
+                .setHeuristicCachingEnabled(true)
+                .setHeuristicDefaultLifetime(settings.cacheMinTtl)
+                .setAsynchronousWorkersCore(0)
+                .setAsynchronousWorkersMax(settings.cacheRevalidationThreads)
+                .build();
+
+        CachingHttpClientBuilder builder = CachingHttpClientBuilder.create();
+        builder.setCacheConfig(cacheConfig)
+                .setHttpCacheStorage(CACHE_STORAGE);
+        builder.setConnectionManager(new InstrumentedConnectionManager(connManager))
+                .setKeepAliveStrategy(new BoundedKeepAliveStrategy(
+                        TimeUnit.SECONDS.toMillis(settings.keepAliveSeconds)))
+                .evictExpiredConnections()
+                .evictIdleConnections(settings.idleTimeoutSeconds, TimeUnit.SECONDS)
+                // GET requests are retried with backoff by PluginUtils
+                .disableAutomaticRetries();
+
+        RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.connectTimeout)
+                .setSocketTimeout(settings.socketTimeout)
+                .setConnectionRequestTimeout(settings.connectionRequestTimeout);
+        if (settings.isProxy()) {
+            requestConfig.setProxy(new HttpHost(settings.proxyHost, settings.proxyPort));
+            if (ProxyUtils.isValid(settings.proxyUser) && ProxyUtils.isValid(settings.proxyPswd)) {
+                CredentialsProvider credsProvider = new BasicCredentialsProvider();
+                credsProvider.setCredentials(
+                        new AuthScope(settings.proxyHost, settings.proxyPort),
+                        new UsernamePasswordCredentials(settings.proxyUser, settings.proxyPswd));
+                builder.setDefaultCredentialsProvider(credsProvider);
+            }
+        }
+        builder.setDefaultRequestConfig(requestConfig.build());
+        return new Holder(settings, builder.build(), connManager);
+    }
+
+    private static void closeQuietly(CloseableHttpClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.info("Failed to close HTTP client. " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keep-alive strategy which caps the duration advertised by the server.
+     */
+    static final class BoundedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long maxMillis;
+
+        BoundedKeepAliveStrategy(long maxMillis) {
+            this.maxMillis = maxMillis;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (duration <= 0 || duration > maxMillis) {
+                return maxMillis;
+            }
+            return duration;
+        }
+    }
+
+    /**
+     * Pair of settings and the client built from them.
+     */
+    private static final class Holder {
+        private final Settings settings;
+        private final CloseableHttpClient client;
+        private final PoolingHttpClientConnectionManager connManager;
+
+        Holder(Settings settings, CloseableHttpClient client, PoolingHttpClientConnectionManager connManager) {
+            this.settings = settings;
+            this.client = client;
+            this.connManager = connManager;
+        }
+    }
+
+    /**
+     * Task which closes a replaced client once its pool has drained.
+     */
+    private static final class Retirement implements Runnable {
+        private final Holder holder;
+        private final long deadline;
+
+        Retirement(Holder holder, long deadline) {
+            this.holder = holder;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            PoolStats stats = holder.connManager.getTotalStats();
+            boolean drained = stats.getLeased() == 0 && stats.getPending() == 0;
+            if (drained || System.currentTimeMillis() >= deadline) {
+                if (!drained) {
+                    log.info("Closing replaced HTTP client with " + stats.getLeased() + " connections in use.");
+                }
+                closeQuietly(holder.client);
+                return;
+            }
+            retirementExecutor().schedule(this, DRAIN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Configuration values which the shared client depends on.
+     */
+    static final class Settings {
+        private final String proxyHost = PluginConfig.getProxyHostName();
+        private final int proxyPort = PluginConfig.getProxyHostNumber();
+        private final String proxyUser = PluginConfig.getProxyUserName();
+        private final String proxyPswd = PluginConfig.getProxyPassword();
+        private final int maxTotal = http(PluginConfig.Http.POOL_MAX_TOTAL, PluginConfig.Http.DEFAULT_POOL_MAX_TOTAL);
+        private final int maxPerRoute = http(PluginConfig.Http.POOL_MAX_PER_ROUTE,
+                PluginConfig.Http.DEFAULT_POOL_MAX_PER_ROUTE);
+        private final int idleTimeoutSeconds = http(PluginConfig.Http.POOL_IDLE_TIMEOUT,
+                PluginConfig.Http.DEFAULT_POOL_IDLE_TIMEOUT);
+        private final int keepAliveSeconds = http(PluginConfig.Http.KEEP_ALIVE, PluginConfig.Http.DEFAULT_KEEP_ALIVE);
+        private final int maxResponseSize = http(PluginConfig.Http.MAX_RESPONSE_SIZE,
+                PluginConfig.Http.DEFAULT_MAX_RESPONSE_SIZE);
+        private final int cacheMaxEntries = http(PluginConfig.Http.CACHE_MAX_ENTRIES,
+                PluginConfig.Http.DEFAULT_CACHE_MAX_ENTRIES);
+        private final int cacheMaxBytes = http(PluginConfig.Http.CACHE_MAX_BYTES,
+                PluginConfig.Http.DEFAULT_CACHE_MAX_BYTES);
+        private final int cacheMinTtl = http(PluginConfig.Http.CACHE_MIN_TTL, PluginConfig.Http.DEFAULT_CACHE_MIN_TTL);
+        private final int cacheMaxTtl = http(PluginConfig.Http.CACHE_MAX_TTL, PluginConfig.Http.DEFAULT_CACHE_MAX_TTL);
+        private final int cacheStaleWhileRevalidate = http(PluginConfig.Http.CACHE_STALE_WHILE_REVALIDATE,
+                PluginConfig.Http.DEFAULT_CACHE_STALE_WHILE_REVALIDATE);
+        private final int cacheRevalidationThreads = http(PluginConfig.Http.CACHE_REVALIDATION_THREADS,
+                PluginConfig.Http.DEFAULT_CACHE_REVALIDATION_THREADS);
+        private final String cacheDir = PluginConfig.get(PluginConfig.Http.CACHE_DIR);
+        private final int cacheDiskMaxBytes = http(PluginConfig.Http.CACHE_DISK_MAX_BYTES,
+                PluginConfig.Http.DEFAULT_CACHE_DISK_MAX_BYTES);
+        private final int connectTimeout = http(PluginConfig.Http.CONNECT_TIMEOUT,
+                PluginConfig.Http.DEFAULT_CONNECT_TIMEOUT);
+        private final int socketTimeout = http(PluginConfig.Http.SOCKET_TIMEOUT,
+                PluginConfig.Http.DEFAULT_SOCKET_TIMEOUT);
+        private final int connectionRequestTimeout = http(PluginConfig.Http.CONNECTION_REQUEST_TIMEOUT,
+                PluginConfig.Http.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+
+        private Settings() {
+        }
+
+        /**
+         * Returns the settings of the current configuration. They are built once per configuration snapshot.
+         * @return settings
+         */
+        static Settings load() {
+            return PluginConfig.getCompiled().derive(Settings.class, config -> new Settings());
+        }
+
+        private static int http(String key, int defaultValue) {
+            return PluginConfig.getInt(key, defaultValue);
+        }
+
+        boolean isProxy() {
+            return ProxyUtils.isValid(proxyHost) && proxyPort > 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Settings)) {
+                return false;
+            }
+            Settings other = (Settings) obj;
+            return proxyPort == other.proxyPort
+                    && maxTotal == other.maxTotal
+                    && maxPerRoute == other.maxPerRoute
+                    && idleTimeoutSeconds == other.idleTimeoutSeconds
+                    && keepAliveSeconds == other.keepAliveSeconds
+                    && maxResponseSize == other.maxResponseSize
+                    && cacheMaxEntries == other.cacheMaxEntries
+                    && cacheMaxBytes == other.cacheMaxBytes
+                    && cacheMinTtl == other.cacheMinTtl
+                    && cacheMaxTtl == other.cacheMaxTtl
+                    && cacheStaleWhileRevalidate == other.cacheStaleWhileRevalidate
+                    && cacheRevalidationThreads == other.cacheRevalidationThreads
+                    && cacheDiskMaxBytes == other.cacheDiskMaxBytes
+                    && connectTimeout == other.connectTimeout
+                    && socketTimeout == other.socketTimeout
+                    && connectionRequestTimeout == other.connectionRequestTimeout
+                    && Objects.equals(proxyHost, other.proxyHost)
+                    && Objects.equals(proxyUser, other.proxyUser)
+                    && Objects.equals(proxyPswd, other.proxyPswd)
+                    && Objects.equals(cacheDir, other.cacheDir);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(proxyHost, proxyPort, proxyUser, proxyPswd,
+                    maxTotal, maxPerRoute, idleTimeoutSeconds, keepAliveSeconds, maxResponseSize,
+                    cacheMaxEntries, cacheMaxBytes, cacheMinTtl, cacheMaxTtl, cacheStaleWhileRevalidate,
+                    cacheRevalidationThreads, cacheDir, cacheDiskMaxBytes,
+                    connectTimeout, socketTimeout, connectionRequestTimeout);
+        }
+    }
+}
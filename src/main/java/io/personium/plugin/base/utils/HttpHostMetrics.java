@@ -0,0 +1,140 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+
+/**
+ * Outbound HTTP metrics of a host.
+ */
+public final class HttpHostMetrics implements HttpHostMetricsMXBean {
+
+    /** Maximum number of distinct error types counted. */
+    static final int MAX_ERROR_TYPES = 100;
+
+    private final String host;
+    private final Map<HttpMetrics.Phase, LatencyHistogram> phases = new EnumMap<>(HttpMetrics.Phase.class);
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheValidations = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    HttpHostMetrics(String host) {
+        this.host = host;
+        for (HttpMetrics.Phase phase : HttpMetrics.Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    void recordPhase(HttpMetrics.Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    void recordCacheStatus(CacheResponseStatus status) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+        case CACHE_MISS:
+            cacheMisses.increment();
+            break;
+        case VALIDATED:
+            cacheValidations.increment();
+            break;
+        default:
+            cacheHits.increment();
+            break;
+        }
+    }
+
+    void recordError(String errorType) {
+        LongAdder counter = errors.get(errorType);
+        if (counter == null) {
+            if (errors.size() >= MAX_ERROR_TYPES) {
+                return;
+            }
+            counter = errors.computeIfAbsent(errorType, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getLeaseTime() {
+        return phases.get(HttpMetrics.Phase.LEASE).snapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getConnectTime() {
+        return phases.get(HttpMetrics.Phase.CONNECT).snapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getServerTime() {
+        return phases.get(HttpMetrics.Phase.SERVER).snapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getParseTime() {
+        return phases.get(HttpMetrics.Phase.PARSE).snapshot();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public long getCacheValidations() {
+        return cacheValidations.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = getCacheHits() + getCacheValidations();
+        long total = hits + getCacheMisses();
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hits / total;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> ret = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+            ret.put(entry.getKey(), entry.getValue().sum());
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.util.Map;
+
+/**
+ * JMX view of the outbound HTTP metrics of a host.
+ */
+public interface HttpHostMetricsMXBean {
+
+    /**
+     * @return target host
+     */
+    String getHost();
+
+    /**
+     * @return time spent waiting for a pooled connection
+     */
+    LatencyHistogram.Snapshot getLeaseTime();
+
+    /**
+     * @return time spent opening connections, including the TLS handshake
+     */
+    LatencyHistogram.Snapshot getConnectTime();
+
+    /**
+     * @return time from sending the request until the response head arrives, excluding lease and connect
+     */
+    LatencyHistogram.Snapshot getServerTime();
+
+    /**
+     * @return time spent reading and parsing the response body
+     */
+    LatencyHistogram.Snapshot getParseTime();
+
+    /**
+     * @return number of responses served from the cache without contacting the server
+     */
+    long getCacheHits();
+
+    /**
+     * @return number of responses fetched from the server
+     */
+    long getCacheMisses();
+
+    /**
+     * @return number of cached responses revalidated with the server
+     */
+    long getCacheValidations();
+
+    /**
+     * @return ratio of cache hits and validations to all responses
+     */
+    double getCacheHitRatio();
+
+    /**
+     * @return number of errors by exception type
+     */
+    Map<String, Long> getErrorCounts();
+}
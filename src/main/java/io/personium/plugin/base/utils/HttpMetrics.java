@@ -0,0 +1,206 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Per-host latency and outcome metrics of outbound HTTP requests.
+ * Metrics of each host are kept in memory and registered to the platform MBeanServer as
+ * {@code io.personium.plugin.base:type=HttpMetrics,host=<host>}.
+ * Additional {@link HttpMetricsSink}s receive every measurement as well.
+ */
+public final class HttpMetrics {
+
+    static Logger log = LoggerFactory.getLogger(HttpMetrics.class);
+
+    /**
+     * Phase of a request.
+     */
+    public enum Phase {
+        /** Waiting for a pooled connection. */
+        LEASE,
+        /** Opening a connection, including the TLS handshake. */
+        CONNECT,
+        /** Sending the request and waiting for the response head. */
+        SERVER,
+        /** Reading and parsing the response body. */
+        PARSE
+    }
+
+    /** JMX domain of the MBeans. */
+    static final String JMX_DOMAIN = "io.personium.plugin.base";
+
+    /** Maximum number of hosts tracked. */
+    static final int MAX_HOSTS = 1000;
+
+    private static final ConcurrentHashMap<String, HttpHostMetrics> HOSTS = new ConcurrentHashMap<>();
+    private static final CopyOnWriteArrayList<HttpMetricsSink> SINKS = new CopyOnWriteArrayList<>();
+
+    /** Lease and connect nanoseconds of the request running on the current thread. */
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+    private static final int LEASE_INDEX = 0;
+    private static final int CONNECT_INDEX = 1;
+
+    private HttpMetrics() {
+    }
+
+    /**
+     * Adds a sink which receives every measurement.
+     * @param sink sink
+     */
+    public static void addSink(HttpMetricsSink sink) {
+        SINKS.addIfAbsent(sink);
+    }
+
+    /**
+     * Removes a sink.
+     * @param sink sink
+     */
+    public static void removeSink(HttpMetricsSink sink) {
+        SINKS.remove(sink);
+    }
+
+    /**
+     * Returns the metrics of all hosts tracked so far.
+     * @return metrics by host
+     */
+    public static Map<String, HttpHostMetrics> getHostMetrics() {
+        return new HashMap<>(HOSTS);
+    }
+
+    /**
+     * Records the time spent in a phase.
+     * @param host target host
+     * @param phase phase
+     * @param nanos elapsed nanoseconds
+     */
+    static void recordPhase(String host, Phase phase, long nanos) {
+        HttpHostMetrics metrics = forHost(host);
+        if (metrics != null) {
+            metrics.recordPhase(phase, nanos);
+        }
+        long[] current = CURRENT.get();
+        if (current != null) {
+            if (phase == Phase.LEASE) {
+                current[LEASE_INDEX] += nanos;
+            } else if (phase == Phase.CONNECT) {
+                current[CONNECT_INDEX] += nanos;
+            }
+        }
+        for (HttpMetricsSink sink : SINKS) {
+            sink.recordPhase(host, phase, nanos);
+        }
+    }
+
+    /**
+     * Records how the HTTP cache handled a response.
+     * @param host target host
+     * @param status cache status
+     */
+    static void recordCacheStatus(String host, CacheResponseStatus status) {
+        HttpHostMetrics metrics = forHost(host);
+        if (metrics != null) {
+            metrics.recordCacheStatus(status);
+        }
+        for (HttpMetricsSink sink : SINKS) {
+            sink.recordCacheStatus(host, status);
+        }
+    }
+
+    /**
+     * Records a failed request.
+     * @param host target host
+     * @param error cause of the failure
+     */
+    static void recordError(String host, Throwable error) {
+        String errorType = error.getClass().getSimpleName();
+        HttpHostMetrics metrics = forHost(host);
+        if (metrics != null) {
+            metrics.recordError(errorType);
+        }
+        for (HttpMetricsSink sink : SINKS) {
+            sink.recordError(host, errorType);
+        }
+    }
+
+    /**
+     * Starts accumulating lease and connect time of the request executed on the current thread.
+     */
+    static void beginRequest() {
+        CURRENT.set(new long[] {0, 0});
+    }
+
+    /**
+     * Stops accumulating and returns the lease and connect time of the request on the current thread.
+     * @return sum of lease and connect nanoseconds
+     */
+    static long endRequest() {
+        long[] current = CURRENT.get();
+        CURRENT.remove();
+        if (current == null) {
+            return 0;
+        }
+        return current[LEASE_INDEX] + current[CONNECT_INDEX];
+    }
+
+    private static HttpHostMetrics forHost(String host) {
+        String key = String.valueOf(host);
+        HttpHostMetrics metrics = HOSTS.get(key);
+        if (metrics != null || HOSTS.size() >= MAX_HOSTS) {
+            return metrics;
+        }
+        boolean[] created = new boolean[1];
+        metrics = HOSTS.computeIfAbsent(key, k -> {
+            created[0] = true;
+            return new HttpHostMetrics(k);
+        });
+        if (created[0]) {
+            register(metrics);
+        }
+        return metrics;
+    }
+
+    private static void register(HttpHostMetrics metrics) {
+        if (!PluginConfig.getBoolean(PluginConfig.Http.METRICS_JMX, PluginConfig.Http.DEFAULT_METRICS_JMX)) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=HttpMetrics,host="
+                    + ObjectName.quote(metrics.getHost()));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            log.info("Failed to register HTTP metrics of " + metrics.getHost() + ". " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+
+/**
+ * Receiver of measurements of outbound HTTP requests. Register an implementation with
+ * {@link HttpMetrics#addSink(HttpMetricsSink)} to forward them to an external metrics system.
+ * Methods are called on the request thread and must return quickly.
+ */
+public interface HttpMetricsSink {
+
+    /**
+     * Called when a phase of a request has completed.
+     * @param host target host
+     * @param phase phase
+     * @param nanos elapsed time in nanoseconds
+     */
+    void recordPhase(String host, HttpMetrics.Phase phase, long nanos);
+
+    /**
+     * Called when a response has been served, with how the HTTP cache handled it.
+     * @param host target host
+     * @param status cache status
+     */
+    void recordCacheStatus(String host, CacheResponseStatus status);
+
+    /**
+     * Called when a request has failed.
+     * @param host target host
+     * @param errorType simple class name of the exception
+     */
+    void recordError(String host, String errorType);
+}
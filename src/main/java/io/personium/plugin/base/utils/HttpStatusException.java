@@ -0,0 +1,48 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the server answers with a status which tells that it cannot serve the request now,
+ * i.e. 5xx or 429. Such a response is retried and counted as a failure of the host by the {@link CircuitBreaker}.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    /**
+     * Constructor.
+     * @param statusCode status code of the response
+     * @param url requested URL
+     */
+    public HttpStatusException(int statusCode, String url) {
+        super("HTTP " + statusCode + " from " + url);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return status code of the response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Transport which performs the outbound GET requests of {@link PluginUtils#getHttpJSON(String)}.
+ * The transport is selected with {@link io.personium.plugin.base.PluginConfig.Http#TRANSPORT}.
+ * Retries, circuit breaking and coalescing of concurrent calls are done by the caller,
+ * so an implementation only has to perform a single request.
+ * An implementation must be thread safe and have a public no-arg constructor.
+ */
+public interface HttpTransport {
+
+    /**
+     * Gets a JSON object with a single GET request.
+     * Implementations should throw {@link LimitedInputStream.LimitExceededException} or
+     * {@link org.apache.http.client.ClientProtocolException} for errors which a retry cannot fix.
+     * @param url URL
+     * @param revalidate true to have a cached document revalidated by the server
+     * @return JSONObject
+     * @throws IOException when the request fails
+     * @throws ParseException when the body is not a JSON object
+     */
+    JSONObject getJSON(String url, boolean revalidate) throws IOException, ParseException;
+}
@@ -0,0 +1,115 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Connection manager which measures connection lease and connect time and reports them to {@link HttpMetrics}.
+ */
+class InstrumentedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+
+    InstrumentedConnectionManager(HttpClientConnectionManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, tunit);
+                } finally {
+                    HttpMetrics.recordPhase(host(route), HttpMetrics.Phase.LEASE, System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration,
+            TimeUnit timeUnit) {
+        delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.connect(conn, route, connectTimeout, context);
+        } finally {
+            HttpMetrics.recordPhase(host(route), HttpMetrics.Phase.CONNECT, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        // TLS handshake through a proxy tunnel
+        long start = System.nanoTime();
+        try {
+            delegate.upgrade(conn, route, context);
+        } finally {
+            HttpMetrics.recordPhase(host(route), HttpMetrics.Phase.CONNECT, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private static String host(HttpRoute route) {
+        return route.getTargetHost().getHostName();
+    }
+}
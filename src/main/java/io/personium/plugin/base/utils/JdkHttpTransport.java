@@ -0,0 +1,227 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.apache.http.HttpHeaders;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * HTTP/2 transport on the JDK {@link HttpClient}.
+ * Concurrent requests to a host are multiplexed as streams over a single connection
+ * when the server supports HTTP/2, and fall back to HTTP/1.1 otherwise.
+ * The proxy of {@link PluginConfig.Proxy} is used when configured.
+ * Responses are not stored in the document cache of {@link HttpClientPool}.
+ * <p>
+ * Proxy credentials are sent preemptively as a Basic {@code Proxy-Authorization} header.
+ * For HTTPS the header goes to the CONNECT request of the tunnel, which the JDK drops while
+ * Basic is listed in the system property {@value #TUNNELING_DISABLED_SCHEMES}
+ * (the default). Start the JVM with {@code -Djdk.http.auth.tunneling.disabledSchemes=}
+ * to authenticate HTTPS tunnels with Basic.
+ */
+public final class JdkHttpTransport implements HttpTransport {
+
+    static Logger log = LoggerFactory.getLogger(JdkHttpTransport.class);
+
+    /** System property listing the schemes the JDK disables for proxy tunnels. */
+    static final String TUNNELING_DISABLED_SCHEMES = "jdk.http.auth.tunneling.disabledSchemes";
+
+    /** Value of the property when not given on the command line (JDK net.properties). */
+    private static final String DEFAULT_TUNNELING_DISABLED_SCHEMES = "Basic";
+
+    /** Client currently in use. Rebuilt when the settings it depends on change. */
+    private volatile Holder current;
+
+    /**
+     * Constructor.
+     */
+    public JdkHttpTransport() {
+        log.warn("HTTP transport 'jdk' is selected. The document cache, metadata prefetch"
+                + " and cache persistence of the 'apache' transport are bypassed.");
+    }
+
+    @Override
+    public JSONObject getJSON(String url, boolean revalidate) throws IOException, ParseException {
+        URI uri = URI.create(url);
+        String host = uri.getHost();
+        long maxSize = PluginConfig.getInt(PluginConfig.Http.MAX_RESPONSE_SIZE,
+                PluginConfig.Http.DEFAULT_MAX_RESPONSE_SIZE);
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(PluginConfig.getInt(PluginConfig.Http.SOCKET_TIMEOUT,
+                            PluginConfig.Http.DEFAULT_SOCKET_TIMEOUT)))
+                    .GET();
+            if (revalidate) {
+                request.header(HttpHeaders.CACHE_CONTROL, "max-age=0");
+            }
+            Holder holder = getHolder();
+            if (holder.proxyAuthorization != null) {
+                request.header(HttpHeaders.PROXY_AUTHORIZATION, holder.proxyAuthorization);
+            }
+            long start = System.nanoTime();
+            HttpResponse<InputStream> res;
+            try {
+                res = holder.client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + url);
+            } finally {
+                HttpMetrics.recordPhase(host, HttpMetrics.Phase.SERVER, System.nanoTime() - start);
+            }
+            try (InputStream body = res.body()) {
+                PluginUtils.checkStatus(res.statusCode(), url);
+                long contentLength = res.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1);
+                if (contentLength > maxSize) {
+                    throw new LimitedInputStream.LimitExceededException(
+                            "Response body from " + url + " exceeds " + maxSize + " bytes.");
+                }
+                return PluginUtils.parseJSON(body, maxSize, host);
+            }
+        } catch (IOException | ParseException | RuntimeException e) {
+            HttpMetrics.recordError(host, e);
+            throw e;
+        }
+    }
+
+    private Holder getHolder() {
+        Settings settings = PluginConfig.getCompiled().derive(Settings.class, config -> new Settings());
+        Holder holder = current;
+        if (holder != null && holder.settings.equals(settings)) {
+            return holder;
+        }
+        synchronized (this) {
+            holder = current;
+            if (holder == null || !holder.settings.equals(settings)) {
+                holder = new Holder(settings, build(settings));
+                current = holder;
+            }
+            return holder;
+        }
+    }
+
+    private static HttpClient build(Settings settings) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(settings.connectTimeout));
+        if (ProxyUtils.isValid(settings.proxyHost) && settings.proxyPort > 0) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(settings.proxyHost, settings.proxyPort)));
+            // Credentials go in the Proxy-Authorization header of each request. The JDK drops that
+            // header when an Authenticator is set, so none is installed.
+            if (settings.hasProxyCredentials() && isBasicTunnelingDisabled()) {
+                log.warn("Proxy credentials are not sent to HTTPS tunnels because Basic is listed in "
+                        + TUNNELING_DISABLED_SCHEMES + ". Set -D" + TUNNELING_DISABLED_SCHEMES
+                        + "= to enable them.");
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Whether the JDK refuses Basic proxy authentication on CONNECT tunnels.
+     * @return true when Basic is disabled for tunneling
+     */
+    static boolean isBasicTunnelingDisabled() {
+        String schemes = System.getProperty(TUNNELING_DISABLED_SCHEMES, DEFAULT_TUNNELING_DISABLED_SCHEMES);
+        for (String scheme : schemes.split(",")) {
+            if ("basic".equals(scheme.trim().toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pair of settings and the client built from them.
+     */
+    private static final class Holder {
+        private final Settings settings;
+        private final HttpClient client;
+        /** Preemptive Proxy-Authorization header value, or null without proxy credentials. */
+        private final String proxyAuthorization;
+
+        Holder(Settings settings, HttpClient client) {
+            this.settings = settings;
+            this.client = client;
+            if (settings.hasProxyCredentials()) {
+                String credentials = settings.proxyUser + ":" + settings.proxyPswd;
+                this.proxyAuthorization = "Basic "
+                        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+            } else {
+                this.proxyAuthorization = null;
+            }
+        }
+    }
+
+    /**
+     * Configuration values which the client depends on.
+     */
+    private static final class Settings {
+        private final String proxyHost = PluginConfig.getProxyHostName();
+        private final int proxyPort = PluginConfig.getProxyHostNumber();
+        private final String proxyUser = PluginConfig.getProxyUserName();
+        private final String proxyPswd = PluginConfig.getProxyPassword();
+        private final int connectTimeout = PluginConfig.getInt(PluginConfig.Http.CONNECT_TIMEOUT,
+                PluginConfig.Http.DEFAULT_CONNECT_TIMEOUT);
+
+        boolean hasProxyCredentials() {
+            return ProxyUtils.isValid(proxyHost) && proxyPort > 0
+                    && ProxyUtils.isValid(proxyUser) && ProxyUtils.isValid(proxyPswd);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Settings)) {
+                return false;
+            }
+            Settings other = (Settings) obj;
+            return proxyPort == other.proxyPort
+                    && connectTimeout == other.connectTimeout
+                    && Objects.equals(proxyHost, other.proxyHost)
+                    && Objects.equals(proxyUser, other.proxyUser)
+                    && Objects.equals(proxyPswd, other.proxyPswd);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(proxyHost, proxyPort, proxyUser, proxyPswd, connectTimeout);
+        }
+    }
+}
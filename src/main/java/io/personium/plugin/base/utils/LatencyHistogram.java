@@ -0,0 +1,159 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Percentiles are approximated by the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+
+    /** Number of buckets. The last bucket holds latencies of about 34 seconds or more. */
+    static final int BUCKETS = 26;
+
+    private static final double P50 = 0.5;
+    private static final double P90 = 0.9;
+    private static final double P99 = 0.99;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+        counts[bucket].increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * @return snapshot of the recorded latencies
+     */
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            c[i] = counts[i].sum();
+            total += c[i];
+        }
+        double mean = 0;
+        if (total > 0) {
+            mean = sumMicros.sum() / MICROS_PER_MILLI / total;
+        }
+        return new Snapshot(total, mean, maxMicros.get() / MICROS_PER_MILLI,
+                percentile(c, total, P50), percentile(c, total, P90), percentile(c, total, P99));
+    }
+
+    private static double percentile(long[] c, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += c[i];
+            if (seen >= rank) {
+                // Upper bound of bucket i is 2^i microseconds
+                return (1L << i) / MICROS_PER_MILLI;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Immutable view of a histogram. Times are in milliseconds.
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final double mean;
+        private final double max;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+
+        Snapshot(long count, double mean, double max, double p50, double p90, double p99) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+
+        /**
+         * @return number of recorded latencies
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return mean in milliseconds
+         */
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * @return maximum in milliseconds
+         */
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * @return approximate median in milliseconds
+         */
+        public double getP50() {
+            return p50;
+        }
+
+        /**
+         * @return approximate 90th percentile in milliseconds
+         */
+        public double getP90() {
+            return p90;
+        }
+
+        /**
+         * @return approximate 99th percentile in milliseconds
+         */
+        public double getP99() {
+            return p99;
+        }
+    }
+}
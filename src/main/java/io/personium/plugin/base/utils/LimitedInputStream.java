@@ -0,0 +1,94 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream which fails as soon as more than the given number of bytes is read.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    /**
+     * Constructor.
+     * @param in underlying stream
+     * @param limit maximum number of bytes which may be read
+     */
+    public LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) throws IOException {
+        count += n;
+        if (count > limit) {
+            throw new LimitExceededException("Stream exceeds the limit of " + limit + " bytes.");
+        }
+    }
+
+    /**
+     * Thrown when more than the limit is read.
+     */
+    public static class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor.
+         * @param message message
+         */
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -18,28 +18,41 @@
 package io.personium.plugin.base.utils;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.CharEncoding;
-import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.personium.plugin.base.PluginConfig;
+import io.personium.plugin.base.auth.AuthPluginException;
+import io.personium.plugin.base.json.JsonProviders;
+
 /**
  * Pluginを作成する人が使用したいであろう各種ユーティリティ関数を集めたクラス.
  */
@@ -113,53 +126,54 @@ public final class PluginUtils {
      * @return エンコードされたあとの文字列
      */
     public static String encodeBase64Url(final byte[] in) {
-        return Base64.encodeBase64URLSafeString(in);
+        return Base64UrlCodec.encodeToString(in);
     }
 
     /**
      * Base64urlのエンコードを行う.
+     * 入力はチャンク単位で読み込んでエンコードする. 結果を文字列にせず書き出す場合は
+     * {@link Base64UrlCodec#encode(InputStream, java.io.OutputStream)}を用いる.
      * @param inStr 入力ストリーム
      * @return 文字列
      */
     public static String encodeBase64Url(final InputStream inStr) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        int l = 0;
+        StringWriter writer = new StringWriter();
         try {
-            while ((l = inStr.read()) != -1) {
-                baos.write(l);
-            }
+            Base64UrlCodec.encode(inStr, writer);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return Base64.encodeBase64URLSafeString(baos.toByteArray());
+        return writer.toString();
     }
 
     /**
      * Base64urlのデコードを行う.
+     * 標準のBase64のアルファベットも受け付け、それ以外の文字は読み飛ばす.
+     * バッファを指定してデコードする場合は{@link Base64UrlCodec}を用いる.
      * @param in デコードしたい文字列
      * @return デコードされたbyte列
      */
     public static byte[] decodeBase64Url(final String in) {
-        return Base64.decodeBase64(in);
+        return Base64UrlCodec.decode(in);
     }
 
-    static final int BITS_HEX_DIGIT = 4;
-    static final int HEX_DIGIT_MASK = 0x0F;
-
     /**
      * バイト列を16進数の文字列に変換する.
-     * TODO さすがにこんなのどこかにライブラリありそうだけど.
      * @param input 入力バイト列
-     * @return 16進数文字列
+     * @return 16進数文字列(小文字)
      */
     public static String byteArray2HexString(final byte[] input) {
-        StringBuffer buff = new StringBuffer();
-        int count = input.length;
-        for (int i = 0; i < count; i++) {
-            buff.append(Integer.toHexString((input[i] >> BITS_HEX_DIGIT) & HEX_DIGIT_MASK));
-            buff.append(Integer.toHexString(input[i] & HEX_DIGIT_MASK));
-        }
-        return buff.toString();
+        return HexCodec.encodeToString(input);
+    }
+
+    /**
+     * 16進数の文字列をバイト列に変換する. 大文字と小文字のどちらも受け付ける.
+     * @param input 16進数文字列
+     * @return バイト列
+     * @throws IllegalArgumentException 文字数が奇数の場合、または16進数以外の文字を含む場合
+     */
+    public static byte[] hexString2ByteArray(final String input) {
+        return HexCodec.decode(input);
     }
 
     /**
@@ -189,23 +203,21 @@ public final class PluginUtils {
     }
 
     /**
-     * InputStreamをすべて読み、String型で返す.
+     * InputStreamをすべてUTF-8として読み、String型で返す.
      * @param is InputStream
      * @return 文字列
      */
     public static String readInputStreamAsString(InputStream is) {
 
-        InputStreamReader isr = null;
         BufferedReader reader = null;
         String bodyString = null;
         try {
-
-            isr = new InputStreamReader(is, "UTF-8");
-            reader = new BufferedReader(isr);
-            StringBuffer sb = new StringBuffer();
-            int chr;
-            while ((chr = is.read()) != -1) {
-                sb.append((char) chr);
+            reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[READ_BUFFER_SIZE];
+            int len;
+            while ((len = reader.read(buf)) != -1) {
+                sb.append(buf, 0, len);
             }
             bodyString = sb.toString();
         } catch (IllegalStateException e) {
@@ -217,9 +229,6 @@ public final class PluginUtils {
                 if (reader != null) {
                     reader.close();
                 }
-                if (isr != null) {
-                    isr.close();
-                }
                 if (is != null) {
                     is.close();
                 }
@@ -231,14 +240,17 @@ public final class PluginUtils {
         return bodyString;
     }
 
-    /**
-     * Cacheを効かせるため、ClientをStaticとする. たかだか限定されたURLのbodyを保存するのみであり、
-     * 最大キャッシュサイズはCacheConfigクラスで定義された16kbyte程度である. そのため、Staticで持つこととした.
-     */
-    private static HttpClient httpClient = CachingHttpClientBuilder.create().build();
+    static final int READ_BUFFER_SIZE = 8192;
 
     /**
      * HTTPでJSONオブジェクトを取得する処理. Cacheが利用可能であればその値を用いる.
+     * 通信は{@link #getHttpTransport()}が返すTransportで行う. 既定のTransportでは、
+     * Proxyの有無にかかわらず、{@link HttpClientPool}が保持するコネクションプール付きのClientを共有する.
+     * レスポンスボディは文字列に変換せず{@link JsonProviders}が選択したパーサで直接パースし、
+     * {@link PluginConfig.Http#MAX_RESPONSE_SIZE}を超える場合はその時点で読み込みを中止する.
+     * 同じURLへの取得が実行中の場合は新たに通信せず、その結果を待って共有する.
+     * 通信エラーおよび5xx・429応答の場合はジッター付きのバックオフを挟んでリトライし、
+     * 接続先ホストへの失敗が続いた場合は{@link CircuitBreaker}により通信せずに{@link CircuitOpenException}をスローする.
      *
      * @param url URL
      * @return JSONObject
@@ -247,21 +259,282 @@ public final class PluginUtils {
      * @throws ParseException ParseException
      */
     public static JSONObject getHttpJSON(String url) throws ClientProtocolException, IOException, ParseException {
-        HttpGet get = new HttpGet(url);
-        HttpResponse res = null;
-        CloseableHttpClient httpProxyClient = null;
-        // Connection Host
-        if (ProxyUtils.isProxyHost()) {
-            httpProxyClient = ProxyUtils.proxyHttpClient();
-            get.setConfig(ProxyUtils.getRequestConfig());
-            res = httpProxyClient.execute(get);
-        } else {
-            res = httpClient.execute(get);
+        try {
+            return IN_FLIGHT.execute(url, () -> fetchHttpJSONWithRetry(url, false));
+        } catch (IOException | ParseException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * キャッシュが新鮮であってもサーバーに再検証を要求してJSONオブジェクトを取得し、キャッシュを更新する.
+     * ETagやLast-Modifiedを持つ場合は条件付きリクエストとなり、変更がなければボディは再取得されない.
+     * 期限切れ前にキャッシュを更新するためのものであり、通常の取得には{@link #getHttpJSON(String)}を用いる.
+     *
+     * @param url URL
+     * @return JSONObject
+     * @throws IOException IOException
+     * @throws ParseException ParseException
+     */
+    public static JSONObject revalidateHttpJSON(String url) throws IOException, ParseException {
+        return fetchHttpJSONWithRetry(url, true);
+    }
+
+    /**
+     * 同時に実行された同一URLへの取得処理を1回にまとめた際、待ち合わせた呼び出し数をURLごとに返す.
+     * @return URLごとの待ち合わせ数
+     */
+    public static Map<String, Long> getCoalescedRequestCounts() {
+        return IN_FLIGHT.getCoalescedCounts();
+    }
+
+    /**
+     * 実行中の取得処理. 待ち合わせた呼び出し元にはJSONObjectの複製を返す.
+     */
+    private static final SingleFlight<String, JSONObject> IN_FLIGHT = new SingleFlight<>(PluginUtils::copyJSON);
+
+    /**
+     * JSONObjectを複製する. 入れ子のJSONObjectとJSONArrayも複製するため、複製を変更しても元のオブジェクトには影響しない.
+     * @param src 複製元
+     * @return 複製
+     */
+    public static JSONObject copyJSON(JSONObject src) {
+        return (JSONObject) copyValue(src);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            JSONObject copy = new JSONObject();
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> src = (List<Object>) value;
+            JSONArray copy = new JSONArray();
+            copy.ensureCapacity(src.size());
+            for (Object element : src) {
+                copy.add(copyValue(element));
+            }
+            return copy;
+        }
+        // String, Number, Boolean and null are immutable
+        return value;
+    }
+
+    private static JSONObject fetchHttpJSONWithRetry(String url, boolean revalidate)
+            throws IOException, ParseException {
+        String host = URI.create(url).getHost();
+        CircuitBreaker breaker = CircuitBreaker.forHost(host);
+        int maxRetries = PluginConfig.getInt(PluginConfig.Http.RETRY_MAX, PluginConfig.Http.DEFAULT_RETRY_MAX);
+        IOException lastError = null;
+        for (int attempt = 0;; attempt++) {
+            if (!breaker.allowRequest()) {
+                if (lastError != null) {
+                    throw lastError;
+                }
+                CircuitOpenException e = new CircuitOpenException(host);
+                HttpMetrics.recordError(host, e);
+                throw e;
+            }
+            boolean hostFailed = false;
+            boolean hostResponded = false;
+            try {
+                JSONObject json = fetchHttpJSON(url, revalidate);
+                hostResponded = true;
+                return json;
+            } catch (LimitedInputStream.LimitExceededException | ClientProtocolException | ParseException e) {
+                // ホストは応答しているためリトライしない
+                hostResponded = true;
+                throw e;
+            } catch (IOException e) {
+                hostFailed = true;
+                lastError = e;
+                if (attempt >= maxRetries || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            } finally {
+                if (hostFailed) {
+                    breaker.recordFailure();
+                } else if (hostResponded) {
+                    breaker.recordSuccess();
+                } else {
+                    // 実行時例外はホストの状態を表さないため、成功とも失敗とも扱わない
+                    breaker.recordInconclusive();
+                }
+            }
+            log.info("Retrying GET " + url + " after " + lastError.getMessage());
+            backoff(attempt);
+        }
+    }
+
+    private static void backoff(int attempt) throws InterruptedIOException {
+        long base = PluginConfig.getInt(PluginConfig.Http.RETRY_BASE_DELAY, PluginConfig.Http.DEFAULT_RETRY_BASE_DELAY);
+        long max = PluginConfig.getInt(PluginConfig.Http.RETRY_MAX_DELAY, PluginConfig.Http.DEFAULT_RETRY_MAX_DELAY);
+        // Full jitter: 0 から min(max, base * 2^attempt) の間でランダムに待つ
+        long cap = Math.min(max, base << Math.min(attempt, MAX_BACKOFF_SHIFT));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry.");
+        }
+    }
+
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private static JSONObject fetchHttpJSON(String url, boolean revalidate) throws IOException, ParseException {
+        return getHttpTransport().getJSON(url, revalidate);
+    }
+
+    /**
+     * {@link PluginConfig.Http#TRANSPORT}で選択された、外部へのHTTP通信を行うTransportを返す.
+     * 未設定の場合はApache HttpClientによるTransportを返す.
+     * @return Transport
+     * @throws IOException Transportを生成できない場合
+     */
+    public static HttpTransport getHttpTransport() throws IOException {
+        String name = PluginConfig.get(PluginConfig.Http.TRANSPORT);
+        if (!ProxyUtils.isValid(name)) {
+            name = PluginConfig.Http.TRANSPORT_APACHE;
+        }
+        HttpTransport transport = TRANSPORTS.get(name.trim());
+        if (transport != null) {
+            return transport;
+        }
+        try {
+            return TRANSPORTS.computeIfAbsent(name.trim(), PluginUtils::createTransport);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+    }
+
+    private static HttpTransport createTransport(String name) {
+        if (PluginConfig.Http.TRANSPORT_APACHE.equalsIgnoreCase(name)) {
+            return new ApacheHttpTransport();
+        }
+        if (PluginConfig.Http.TRANSPORT_JDK.equalsIgnoreCase(name)) {
+            return new JdkHttpTransport();
+        }
+        try {
+            return Class.forName(name).asSubclass(HttpTransport.class).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid HTTP transport: " + name, e);
+        }
+    }
+
+    /**
+     * 生成済みのTransport. 設定値ごとに保持する.
+     */
+    private static final ConcurrentHashMap<String, HttpTransport> TRANSPORTS = new ConcurrentHashMap<>();
+
+    /** 429 Too Many Requests. {@link HttpStatus}には定義されていない. */
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * レスポンスのステータスコードを検査する. 2xx以外の場合はボディをJSONとして扱わずに例外をスローする.
+     * 条件付きリクエストの304はキャッシュが処理するため、ここには到達しない.
+     * @param status ステータスコード
+     * @param url URL
+     * @throws HttpStatusException 5xxまたは429の場合. リトライ対象となり、ホストへの失敗として記録される
+     * @throws ClientProtocolException その他の2xx以外の場合
+     */
+    static void checkStatus(int status, String url) throws HttpStatusException, ClientProtocolException {
+        if (status >= HttpStatus.SC_OK && status < HttpStatus.SC_MULTIPLE_CHOICES) {
+            return;
+        }
+        if (status >= HttpStatus.SC_INTERNAL_SERVER_ERROR || status == SC_TOO_MANY_REQUESTS) {
+            throw new HttpStatusException(status, url);
+        }
+        throw new ClientProtocolException("Unexpected HTTP status " + status + " from " + url);
+    }
+
+    /**
+     * レスポンスボディを{@link JsonProviders}が選択したパーサで直接パースする. 上限を超えた時点で読み込みを中止する.
+     * @param in レスポンスボディ
+     * @param maxSize 読み込むバイト数の上限
+     * @param host 接続先ホスト. 計測に用いる
+     * @return JSONObject
+     * @throws IOException IOException
+     * @throws ParseException ParseException
+     */
+    static JSONObject parseJSON(InputStream in, long maxSize, String host) throws IOException, ParseException {
+        long start = System.nanoTime();
+        try (InputStream limited = new LimitedInputStream(in, maxSize)) {
+            Object parsed = JsonProviders.get().parse(limited);
+            if (!(parsed instanceof JSONObject)) {
+                throw new ParseException(0, ParseException.ERROR_UNEXPECTED_TOKEN, parsed);
+            }
+            return (JSONObject) parsed;
+        } finally {
+            HttpMetrics.recordPhase(host, HttpMetrics.Phase.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * HTTPでJSONオブジェクトを非同期に取得する.
+     * 処理は{@link #getHttpJSON(String)}と同じ共有Clientを用いて専用スレッドで実行されるため、呼び出し元のスレッドを占有しない.
+     * 失敗した場合、返却したFutureは{@link AuthPluginException.TemporarilyUnavailable}で例外完了する.
+     *
+     * @param url URL
+     * @return JSONObjectを返すFuture
+     */
+    public static CompletableFuture<JSONObject> getHttpJSONAsync(String url) {
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        try {
+            AsyncExecutorHolder.EXECUTOR.execute(() -> {
+                try {
+                    future.complete(getHttpJSON(url));
+                } catch (IOException | ParseException | RuntimeException e) {
+                    future.completeExceptionally(temporarilyUnavailable(url, e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(temporarilyUnavailable(url, e));
+        }
+        return future;
+    }
+
+    private static AuthPluginException temporarilyUnavailable(String url, Exception cause) {
+        log.info("Failed to get JSON from " + url + ". " + cause.getMessage());
+        AuthPluginException e = new AuthPluginException.TemporarilyUnavailable(
+                "Failed to get JSON from " + url);
+        e.initCause(cause);
+        return e;
+    }
+
+    /**
+     * {@link #getHttpJSONAsync(String)}用のスレッドプール. 初回利用時に生成する.
+     */
+    private static final class AsyncExecutorHolder {
+        private static final long KEEP_ALIVE_SECONDS = 60L;
+
+        static final ExecutorService EXECUTOR = create();
+
+        private AsyncExecutorHolder() {
         }
 
-        InputStream is = res.getEntity().getContent();
-        String body = PluginUtils.readInputStreamAsString(is);
-        JSONObject jsonObj = (JSONObject) new JSONParser().parse(body);
-        return jsonObj;
+        private static ExecutorService create() {
+            int threads = Math.max(1, PluginConfig.getInt(PluginConfig.Http.ASYNC_THREADS,
+                    PluginConfig.Http.DEFAULT_ASYNC_THREADS));
+            int queueSize = Math.max(1, PluginConfig.getInt(PluginConfig.Http.ASYNC_QUEUE_SIZE,
+                    PluginConfig.Http.DEFAULT_ASYNC_QUEUE_SIZE));
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+                        Thread t = new Thread(r, "plugin-http-async-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
     }
 }
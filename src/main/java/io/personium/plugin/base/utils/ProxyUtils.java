@@ -54,13 +54,13 @@ public class ProxyUtils {
      * @return false/true boolean
      */
     public static boolean isProxyHost() {
-        String host = PluginConfig.getProxyHostName();
-        int port = PluginConfig.getProxyHostNumber();
-        return isValid(host) && port > 0;
+        return PluginConfig.getCompiled().getProxy().isEnabled();
     }
 
     /**
      * compatible proxy Credentials.
+     * A new client is created on every call and must be closed by the caller.
+     * Use {@link HttpClientPool#getClient()} to share pooled connections instead.
      * @return httpClient CloseableHttpClient
      */
     public static CloseableHttpClient proxyHttpClient() {
@@ -86,7 +86,8 @@ public class ProxyUtils {
     /**
      * compatible proxy RequestConfig.
      * getRequestConfig.
-     * @return config RequestConfig
+     * Timeouts configured in {@link PluginConfig.Http} are also applied.
+     * @return config RequestConfig, or null if no proxy is configured
      */
     public static RequestConfig getRequestConfig() {
         RequestConfig config = null;
@@ -94,7 +95,14 @@ public class ProxyUtils {
         int port = PluginConfig.getProxyHostNumber();
         if (isValid(host) && port > 0) {
             HttpHost proxy = new HttpHost(host, port);
-            config = RequestConfig.custom().setProxy(proxy).build();
+            config = RequestConfig.custom().setProxy(proxy)
+                    .setConnectTimeout(PluginConfig.getInt(PluginConfig.Http.CONNECT_TIMEOUT,
+                            PluginConfig.Http.DEFAULT_CONNECT_TIMEOUT))
+                    .setSocketTimeout(PluginConfig.getInt(PluginConfig.Http.SOCKET_TIMEOUT,
+                            PluginConfig.Http.DEFAULT_SOCKET_TIMEOUT))
+                    .setConnectionRequestTimeout(PluginConfig.getInt(PluginConfig.Http.CONNECTION_REQUEST_TIMEOUT,
+                            PluginConfig.Http.DEFAULT_CONNECTION_REQUEST_TIMEOUT))
+                    .build();
         }
 
         return config;
@@ -0,0 +1,123 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ * The first caller runs the loader, and callers arriving while it runs wait for and share its result.
+ * When a copier is given, each caller receives its own copy, so that no caller can modify what another one sees.
+ * @param <K> type of key
+ * @param <V> type of result
+ */
+public final class SingleFlight<K, V> {
+
+    /** Maximum number of keys for which coalescing counts are kept. */
+    static final int MAX_TRACKED_KEYS = 1000;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, LongAdder> coalesced = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+
+    /**
+     * Constructor.
+     * @param copier function which deep copies the shared result for each caller, or null to share it as is
+     */
+    public SingleFlight(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+
+    /**
+     * Runs the loader unless a call for the same key is already in flight, in which case its result is awaited.
+     * @param key key
+     * @param loader loader
+     * @return result
+     * @throws Exception exception thrown by the loader
+     */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            countCoalesced(key);
+            return await(inFlight);
+        }
+        try {
+            V result = loader.call();
+            mine.complete(result);
+            // The shared result stays untouched. Every caller, including this one, gets its own copy.
+            return copy(result);
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the number of callers which joined an in-flight call, per key.
+     * @return coalesced caller counts
+     */
+    public Map<K, Long> getCoalescedCounts() {
+        Map<K, Long> ret = new HashMap<>();
+        for (Map.Entry<K, LongAdder> entry : coalesced.entrySet()) {
+            ret.put(entry.getKey(), entry.getValue().sum());
+        }
+        return ret;
+    }
+
+    private V await(CompletableFuture<V> inFlight) throws Exception {
+        V result;
+        try {
+            result = inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        }
+        return copy(result);
+    }
+
+    private V copy(V result) {
+        if (copier == null || result == null) {
+            return result;
+        }
+        return copier.apply(result);
+    }
+
+    private void countCoalesced(K key) {
+        LongAdder counter = coalesced.get(key);
+        if (counter == null) {
+            if (coalesced.size() >= MAX_TRACKED_KEYS) {
+                return;
+            }
+            counter = coalesced.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of CellOverlays.
+ */
+public class CellOverlaysTest {
+
+    private static final String KEY = "io.personium.core.test.value";
+
+    /** Directories of the overlay files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * An overlay set by the program survives a change of the overlay directory.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void programmatic_overlay_survives_dir_change() throws IOException {
+        File first = folder.newFolder("first");
+        File second = folder.newFolder("second");
+        write(first, "cell1", "file");
+        CellOverlays overlays = new CellOverlays();
+        overlays.put("cell1", Collections.singletonMap(KEY, "program"));
+        assertEquals("program", overlays.resolve("cell1", base(first)).get(KEY));
+
+        overlays.clearLoaded();
+        assertEquals("program", overlays.resolve("cell1", base(second)).get(KEY));
+    }
+
+    /**
+     * An overlay read from a file is read again from the new directory.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void loaded_overlay_follows_dir_change() throws IOException {
+        File first = folder.newFolder("first");
+        File second = folder.newFolder("second");
+        write(first, "cell1", "first");
+        write(second, "cell1", "second");
+        CellOverlays overlays = new CellOverlays();
+        assertEquals("first", overlays.resolve("cell1", base(first)).get(KEY));
+        assertEquals("second", overlays.resolve("cell1", base(second)).get(KEY));
+        assertNull(overlays.resolve("cell2", base(second)).get(KEY));
+    }
+
+    private static CompiledConfig base(File dir) {
+        Map<String, String> values = new HashMap<>();
+        values.put(PluginConfig.CELL_CONFIG_DIR, dir.getAbsolutePath());
+        return new CompiledConfig(values);
+    }
+
+    private static void write(File dir, String cellName, String value) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY, value);
+        try (OutputStream os = new FileOutputStream(new File(dir, cellName + ".properties"))) {
+            properties.store(os, null);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+/**
+ * Unit tests of CompiledConfig.
+ */
+public class CompiledConfigTest {
+
+    private Logger original;
+
+    /**
+     * Replaces the logger with a mock.
+     */
+    @Before
+    public void setUp() {
+        original = CompiledConfig.log;
+        CompiledConfig.log = mock(Logger.class);
+    }
+
+    /**
+     * Restores the logger.
+     */
+    @After
+    public void tearDown() {
+        CompiledConfig.log = original;
+    }
+
+    /**
+     * An invalid int value falls back to the default and is logged only on the first read.
+     */
+    @Test
+    public void invalid_int_is_logged_once() {
+        Map<String, String> values = new HashMap<>();
+        values.put("a.port", "eighty");
+        values.put("a.size", "10");
+        CompiledConfig config = new CompiledConfig(values);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(80, config.getInt("a.port", 80));
+            assertEquals(10, config.getInt("a.size", 0));
+        }
+        verify(CompiledConfig.log, times(1)).info(anyString());
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests of ConfigChangeDispatcher.
+ */
+public class ConfigChangeDispatcherTest {
+
+    private static final long WAIT_SECONDS = 10;
+    private static final String SENTINEL = "test.sentinel";
+
+    private final BlockingQueue<ConfigChangeEvent> events = new LinkedBlockingQueue<>();
+    private final List<ConfigChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * Unregisters the listeners.
+     */
+    @After
+    public void tearDown() {
+        for (ConfigChangeListener listener : listeners) {
+            ConfigChangeDispatcher.remove(listener);
+        }
+    }
+
+    /**
+     * A prefix subscription receives the changed keys under the prefix only, with their old and new values.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void prefix_receives_keys_under_prefix() throws Exception {
+        subscribe("test.a.");
+        fire(config("test.a.x", "1", "test.a.y", "1", "test.ab", "1", "test.b", "1"),
+                config("test.a.x", "2", "test.a.y", "1", "test.a.z", "1", "test.ab", "2", "test.b", "2"));
+        ConfigChangeEvent event = next();
+        assertEquals(Arrays.asList("test.a.x", "test.a.z"), new ArrayList<>(event.getChangedKeys()));
+        assertEquals("1", event.getOldValue("test.a.x"));
+        assertEquals("2", event.getNewValue("test.a.x"));
+        assertNull(event.getOldValue("test.a.z"));
+        assertSentinelIsNext();
+    }
+
+    /**
+     * A key subscription does not match keys which only share its prefix.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void key_does_not_match_longer_keys() throws Exception {
+        subscribe("test.a");
+        fire(config("test.a", "1", "test.a.x", "1", "test.ab", "1"),
+                config("test.a", "1", "test.a.x", "2", "test.ab", "2"));
+        assertSentinelIsNext();
+        fire(config("test.a", "1"), config("test.a", "2"));
+        assertEquals(Arrays.asList("test.a"), new ArrayList<>(next().getChangedKeys()));
+    }
+
+    /**
+     * A removed key is delivered with no new value.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void removed_key_is_delivered() throws Exception {
+        subscribe("test.a.");
+        fire(config("test.a.x", "1", "test.a.y", "1"), config("test.a.y", "1"));
+        ConfigChangeEvent event = next();
+        assertEquals(Arrays.asList("test.a.x"), new ArrayList<>(event.getChangedKeys()));
+        assertEquals("1", event.getOldValue("test.a.x"));
+        assertNull(event.getNewValue("test.a.x"));
+    }
+
+    /**
+     * A new snapshot with the same values delivers nothing.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void unchanged_values_deliver_nothing() throws Exception {
+        subscribe("test.a.");
+        fire(config("test.a.x", "1"), config("test.a.x", "1"));
+        assertSentinelIsNext();
+    }
+
+    /**
+     * A failing listener does not keep the change from the others.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void failing_listener_does_not_block_others() throws Exception {
+        ConfigChangeListener failing = event -> {
+            throw new IllegalStateException("failure");
+        };
+        listeners.add(failing);
+        ConfigChangeDispatcher.add("test.a.", failing);
+        subscribe("test.a.");
+        fire(config("test.a.x", "1"), config("test.a.x", "2"));
+        assertEquals(Arrays.asList("test.a.x"), new ArrayList<>(next().getChangedKeys()));
+    }
+
+    private void subscribe(String pattern) {
+        ConfigChangeListener listener = events::add;
+        listeners.add(listener);
+        ConfigChangeDispatcher.add(pattern, listener);
+        ConfigChangeDispatcher.add(SENTINEL, listener);
+    }
+
+    private static void fire(CompiledConfig oldConfig, CompiledConfig newConfig) {
+        ConfigChangeDispatcher.fire(oldConfig, newConfig);
+    }
+
+    private ConfigChangeEvent next() throws InterruptedException {
+        ConfigChangeEvent event = events.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(event);
+        return event;
+    }
+
+    /**
+     * Fires a change of the sentinel key and checks that it is the next delivery.
+     * Changes are delivered in order, so nothing fired before it is still pending.
+     */
+    private void assertSentinelIsNext() throws InterruptedException {
+        fire(config(SENTINEL, "1"), config(SENTINEL, "2"));
+        assertEquals(Arrays.asList(SENTINEL), new ArrayList<>(next().getChangedKeys()));
+    }
+
+    private static CompiledConfig config(String... keyValues) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            values.put(keyValues[i], keyValues[i + 1]);
+        }
+        return new CompiledConfig(values);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of ConfigFileWatcher.
+ */
+public class ConfigFileWatcherTest {
+
+    private static final long DEBOUNCE = 100;
+    private static final long WAIT = 5000;
+
+    /** Watched directory. */
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    private final Semaphore changes = new Semaphore(0);
+
+    /**
+     * Swapping the ..data link of a ConfigMap style volume is detected, although the watched name sees no event.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void configmap_link_swap_is_detected() throws Exception {
+        Path root = dir.getRoot().toPath();
+        writeVersion(root, "v1", "a=1\n");
+        Files.createSymbolicLink(root.resolve("..data"), Paths.get("v1"));
+        Path file = root.resolve("unit.properties");
+        Files.createSymbolicLink(file, Paths.get("..data/unit.properties"));
+        ConfigFileWatcher watcher = new ConfigFileWatcher(file, DEBOUNCE, changes::release);
+        try {
+            writeVersion(root, "v2", "a=2\n");
+            Files.createSymbolicLink(root.resolve("..data_tmp"), Paths.get("v2"));
+            Files.move(root.resolve("..data_tmp"), root.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+            assertTrue(changes.tryAcquire(WAIT, TimeUnit.MILLISECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Events which leave the content unchanged do not run the callback.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void unchanged_content_is_ignored() throws Exception {
+        Path file = dir.getRoot().toPath().resolve("unit.properties");
+        Files.write(file, "a=1\n".getBytes(StandardCharsets.UTF_8));
+        ConfigFileWatcher watcher = new ConfigFileWatcher(file, DEBOUNCE, changes::release);
+        try {
+            Files.write(file, "a=1\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.getRoot().toPath().resolve("other.txt"), new byte[] {1});
+            assertFalse(changes.tryAcquire(DEBOUNCE * 10, TimeUnit.MILLISECONDS));
+            Files.write(file, "a=2\n".getBytes(StandardCharsets.UTF_8));
+            assertTrue(changes.tryAcquire(WAIT, TimeUnit.MILLISECONDS));
+            assertEquals(0, changes.availablePermits());
+        } finally {
+            watcher.close();
+        }
+    }
+
+    private static void writeVersion(Path root, String version, String content) throws Exception {
+        Path versionDir = Files.createDirectory(root.resolve(version));
+        Files.write(versionDir.resolve("unit.properties"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of PluginConfig.
+ */
+public class PluginConfigTest {
+
+    private static final String PREFIX = PluginConfig.KEY_ROOT + "test.";
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int UPDATES = 500;
+
+    /** Directory of the override file. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * getProperties() returns a copy, so changing it does not change the configuration.
+     */
+    @Test
+    public void properties_are_a_copy() {
+        String key = PREFIX + "copy";
+        PluginConfig.set(key, "original");
+        Properties properties = PluginConfig.getProperties();
+        assertEquals("original", properties.getProperty(key));
+        properties.setProperty(key, "changed");
+        properties.setProperty(PREFIX + "added", "added");
+        assertEquals("original", PluginConfig.get(key));
+        assertNull(PluginConfig.get(PREFIX + "added"));
+    }
+
+    /**
+     * A snapshot cannot be modified and is not affected by later set() calls.
+     */
+    @Test
+    public void snapshot_is_immutable() {
+        String key = PREFIX + "snapshot";
+        PluginConfig.set(key, "1");
+        Map<String, String> snapshot = PluginConfig.getSnapshot();
+        try {
+            snapshot.put(key, "2");
+            fail("Snapshot was modified");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("1", snapshot.get(key));
+        }
+        PluginConfig.set(key, "3");
+        assertEquals("1", snapshot.get(key));
+        assertEquals("3", PluginConfig.get(key));
+    }
+
+    /**
+     * Concurrent set() calls lose no update, and readers never see a value go back.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void concurrent_set_loses_no_update() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                String key = PREFIX + "concurrent." + w;
+                writers.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 1; i <= UPDATES; i++) {
+                        PluginConfig.set(key, String.valueOf(i));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    startLatch.await();
+                    int[] last = new int[WRITERS];
+                    while (writing.get()) {
+                        Map<String, String> snapshot = PluginConfig.getSnapshot();
+                        for (int w = 0; w < WRITERS; w++) {
+                            String value = snapshot.get(PREFIX + "concurrent." + w);
+                            int current = 0;
+                            if (value != null) {
+                                current = Integer.parseInt(value);
+                            }
+                            if (current < last[w]) {
+                                throw new AssertionError("Value of writer " + w + " went back from "
+                                        + last[w] + " to " + current);
+                            }
+                            last[w] = current;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+            for (int w = 0; w < WRITERS; w++) {
+                assertEquals(String.valueOf(UPDATES), PluginConfig.get(PREFIX + "concurrent." + w));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reloading an empty override file reverts to the defaults, while a missing file keeps the current values.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void reload_distinguishes_empty_and_missing_file() throws Exception {
+        String key = PREFIX + "reload";
+        Path file = folder.getRoot().toPath().resolve("unit.properties");
+        Files.write(file, (key + "=1\n").getBytes(StandardCharsets.UTF_8));
+        System.setProperty(PluginConfig.KEY_CONFIG_FILE, file.toString());
+        try {
+            assertTrue(PluginConfig.reload());
+            assertEquals("1", PluginConfig.get(key));
+
+            Files.delete(file);
+            assertFalse(PluginConfig.reload());
+            assertEquals("1", PluginConfig.get(key));
+
+            Files.write(file, new byte[0]);
+            assertTrue(PluginConfig.reload());
+            assertNull(PluginConfig.get(key));
+        } finally {
+            System.clearProperty(PluginConfig.KEY_CONFIG_FILE);
+            PluginConfig.reload();
+        }
+    }
+}
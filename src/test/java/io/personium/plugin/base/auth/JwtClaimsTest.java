@@ -0,0 +1,114 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.json.simple.parser.ParseException;
+import org.junit.Test;
+
+/**
+ * Unit tests of JwtClaims.
+ */
+public class JwtClaimsTest {
+
+    private static String segment(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String token(String payload) {
+        return segment("{\"alg\":\"none\"}") + "." + segment(payload) + ".";
+    }
+
+    private static void assertRejected(String payload) {
+        String token = token(payload);
+        try {
+            JwtClaims.of(token);
+            fail("JwtClaims accepted " + payload);
+        } catch (ParseException e) {
+            // expected
+        }
+        try {
+            AuthPluginUtils.tokenToJSON(segment(payload));
+            fail("tokenToJSON accepted " + payload);
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Typed accessors return the values of the claims.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void accessors_return_claims() throws Exception {
+        JwtClaims claims = JwtClaims.of(token(
+                "{\"iss\":\"https://idp\\/x\",\"sub\":\"\\u0061lice\",\"aud\":[\"a\",1,\"b\"],"
+                + "\"exp\":1700000000,\"nested\":{\"sub\":\"x\"},\"admin\":true}"));
+        assertEquals("https://idp/x", claims.iss());
+        assertEquals("alice", claims.sub());
+        assertEquals(Arrays.asList("a", "b"), claims.aud());
+        assertEquals(1700000000L, claims.exp());
+        assertEquals(0L, claims.nbf());
+        assertEquals(true, claims.getBoolean("admin"));
+        assertNull(claims.email());
+    }
+
+    /**
+     * Duplicate member names are rejected by both the lazy view and the parsed view.
+     */
+    @Test
+    public void duplicate_members_are_rejected() {
+        assertRejected("{\"sub\":\"alice\",\"exp\":1,\"sub\":\"admin\"}");
+        assertRejected("{\"sub\":\"alice\",\"\\u0073ub\":\"admin\"}");
+        StringBuilder many = new StringBuilder("{");
+        for (int i = 0; i < 40; i++) {
+            many.append("\"c").append(i).append("\":").append(i).append(',');
+        }
+        many.append("\"c7\":0}");
+        assertRejected(many.toString());
+    }
+
+    /**
+     * Equal names at different depths are not duplicates.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void nested_names_are_not_duplicates() throws Exception {
+        String payload = "{\"sub\":\"alice\",\"act\":{\"sub\":\"admin\"}}";
+        assertEquals("alice", JwtClaims.of(token(payload)).sub());
+        assertEquals("alice", AuthPluginUtils.tokenToJSON(segment(payload)).get("sub"));
+    }
+
+    /**
+     * Malformed escapes are reported as ParseException instead of an unchecked exception.
+     */
+    @Test
+    public void invalid_escapes_are_rejected() {
+        assertRejected("{\"iss\":\"\\u12\"}");
+        assertRejected("{\"iss\":\"\\uZZZZ\"}");
+        assertRejected("{\"iss\":\"\\x\"}");
+        assertRejected("{\"iss\":\"abc\\");
+    }
+}
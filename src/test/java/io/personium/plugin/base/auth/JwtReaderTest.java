@@ -0,0 +1,74 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of JwtReader.
+ */
+public class JwtReaderTest {
+
+    private static String token(String who) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"who\":\"" + who + "\"}").getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+
+    /**
+     * A reader keeps reading its own token after another reader decoded on the same thread.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void reader_is_not_affected_by_another_reader() throws Exception {
+        JwtReader a = JwtReader.of(token("tokenA"));
+        assertEquals("tokenA", a.payloadJSON().get("who"));
+        JwtReader b = JwtReader.of(token("tokenB"));
+        assertEquals("tokenB", b.payloadJSON().get("who"));
+        assertEquals("tokenA", a.payloadJSON().get("who"));
+        assertEquals("tokenA", a.claims().getString("who"));
+        assertEquals("tokenB", b.claims().getString("who"));
+    }
+
+    /**
+     * A reader handed over to another thread decodes into the buffers of that thread.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void reader_can_move_to_another_thread() throws Exception {
+        JwtReader a = JwtReader.of(token("tokenA"));
+        assertEquals("tokenA", a.payloadJSON().get("who"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Object who = executor.submit(() -> {
+                JwtReader.of(token("tokenC")).payloadJSON();
+                return a.payloadJSON().get("who");
+            }).get();
+            assertEquals("tokenA", who);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
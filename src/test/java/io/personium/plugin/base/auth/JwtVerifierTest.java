@@ -0,0 +1,171 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests of JwtVerifier.
+ */
+public class JwtVerifierTest {
+
+    private HttpServer server;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private final AtomicInteger goodRequests = new AtomicInteger();
+    private KeyPair keyPair;
+
+    /**
+     * Starts a server whose JWK Set endpoint is broken.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jwks", exchange -> {
+            jwksRequests.incrementAndGet();
+            byte[] body = "not json".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        server.createContext("/good", exchange -> {
+            goodRequests.incrementAndGet();
+            RSAPublicKey key = (RSAPublicKey) keyPair.getPublic();
+            String jwks = "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"k\",\"n\":\"" + unsigned(key.getModulus())
+                    + "\",\"e\":\"" + unsigned(key.getPublicExponent()) + "\"}]}";
+            byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    private static String unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private String signed(String iss, String sub) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String input = encoder.encodeToString("{\"alg\":\"RS256\",\"kid\":\"k\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(("{\"iss\":\"" + iss + "\",\"sub\":\"" + sub
+                        + "\",\"exp\":4102444800}").getBytes(StandardCharsets.UTF_8));
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(input.getBytes(StandardCharsets.US_ASCII));
+        return input + "." + encoder.encodeToString(signature.sign());
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static String token(String iss) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\",\"kid\":\"k\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"iss\":\"" + iss + "\",\"exp\":4102444800}")
+                        .getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+    }
+
+    private static void assertUnavailable(JwtVerifier verifier, String token) {
+        try {
+            verifier.verify(token);
+            fail("verified");
+        } catch (AuthPluginException.TemporarilyUnavailable e) {
+            // expected
+        } catch (AuthPluginException e) {
+            fail("unexpected " + e);
+        }
+    }
+
+    /**
+     * After a failed first fetch, the JWK Set is not fetched again until the minimum interval has elapsed.
+     */
+    @Test
+    public void failed_fetch_is_rate_limited() {
+        JwtVerifier verifier = new JwtVerifier();
+        String iss = "https://idp.example";
+        verifier.registerIssuer(iss, "http://127.0.0.1:" + server.getAddress().getPort() + "/jwks");
+        assertUnavailable(verifier, token(iss));
+        int requests = jwksRequests.get();
+        assertUnavailable(verifier, token(iss));
+        assertUnavailable(verifier, token(iss));
+        assertEquals(requests, jwksRequests.get());
+    }
+
+    /**
+     * verifyAll fetches the keys of an issuer once and reports each token in order.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void verifyAll_verifies_in_order_with_one_fetch() throws Exception {
+        JwtVerifier verifier = new JwtVerifier();
+        String iss = "https://good.example";
+        verifier.registerIssuer(iss, "http://127.0.0.1:" + server.getAddress().getPort() + "/good");
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(signed(iss, "user" + i));
+        }
+        String tampered = tokens.get(7);
+        tokens.set(7, tampered.substring(0, tampered.length() - 4) + "AAAA");
+        tokens.add(token("https://unknown.example"));
+        List<TokenValidationResult> results = verifier.verifyAll(tokens);
+        assertEquals(tokens.size(), results.size());
+        for (int i = 0; i < 50; i++) {
+            if (i == 7) {
+                assertFalse(results.get(i).isValid());
+            } else {
+                assertTrue(results.get(i).isValid());
+                assertEquals("user" + i, results.get(i).getClaims().get("sub"));
+            }
+        }
+        assertFalse(results.get(50).isValid());
+        assertEquals(1, goodRequests.get());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.personium.plugin.base.PluginConfig;
+import io.personium.plugin.base.utils.HttpClientPool;
+
+/**
+ * Unit tests of OIDCMetadataPrefetcher.
+ */
+public class OIDCMetadataPrefetcherTest {
+
+    private static final String PROVIDER = PluginConfig.OIDC.OIDC + "prefetchtest";
+
+    private HttpServer server;
+    private final CountDownLatch jwksFetched = new CountDownLatch(1);
+
+    /**
+     * Starts a server with a discovery document and a JWK Set, and installs the refresher.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/.well-known/openid-configuration",
+                exchange -> respond(exchange, "{\"jwks_uri\":\"" + base + "/jwks\"}"));
+        server.createContext("/jwks", exchange -> {
+            respond(exchange, "{\"keys\":[]}");
+            jwksFetched.countDown();
+        });
+        server.start();
+        PluginConfig.set(PROVIDER + PluginConfig.OIDC.DISCOVERY_URL, base + "/.well-known/openid-configuration");
+        // as done when the auth plugins are loaded
+        OIDCMetadataPrefetcher.install();
+    }
+
+    /**
+     * Stops the refresher and the server.
+     */
+    @After
+    public void tearDown() {
+        PluginConfig.set(PluginConfig.Http.PREFETCH_ENABLED, "false");
+        PluginConfig.set(PluginConfig.Http.PREFETCH_INTERVAL, "");
+        OIDCMetadataPrefetcher.stop();
+        server.stop(0);
+        HttpClientPool.shutdown();
+    }
+
+    /**
+     * Enabling the prefetch in the configuration starts the refresh without an explicit start(),
+     * and the fetched documents are found in the cache with their lifetime.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void enabling_prefetch_starts_refresh() throws Exception {
+        PluginConfig.set(PluginConfig.Http.PREFETCH_ENABLED, "true");
+        assertTrue(jwksFetched.await(10, TimeUnit.SECONDS));
+        String jwksUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/jwks";
+        long deadline = System.currentTimeMillis() + 5000;
+        while (HttpClientPool.getCacheStorage().getFreshnessLifetime(jwksUrl) < 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(100, HttpClientPool.getCacheStorage().getFreshnessLifetime(jwksUrl));
+    }
+
+    /**
+     * The next refresh follows the document lifetime, capped by the configured interval.
+     */
+    @Test
+    public void delay_follows_document_lifetime() {
+        assertEquals(80, OIDCMetadataPrefetcher.getDelay(100));
+        assertEquals(1, OIDCMetadataPrefetcher.getDelay(0));
+        PluginConfig.set(PluginConfig.Http.PREFETCH_INTERVAL, "30");
+        assertEquals(30, OIDCMetadataPrefetcher.getDelay(100));
+        assertEquals(30, OIDCMetadataPrefetcher.getDelay(-1));
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Cache-Control", "max-age=100");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of ReplayCache.
+ */
+public class ReplayCacheTest {
+
+    /**
+     * The second use of an identifier is detected as a replay.
+     */
+    @Test
+    public void second_use_is_replay() {
+        ReplayCache cache = new ReplayCache(100);
+        long expiresAt = System.currentTimeMillis() + 60000;
+        assertTrue(cache.markUsed("jti-1", expiresAt));
+        assertFalse(cache.markUsed("jti-1", expiresAt));
+        assertTrue(cache.markUsed("jti-2", expiresAt));
+        assertEquals(1, cache.getReplayCount());
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * An identifier which expired before it was swept can be used again and is kept once.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void expired_identifier_can_be_reused() throws Exception {
+        ReplayCache cache = new ReplayCache(100);
+        assertTrue(cache.markUsed("nonce", System.currentTimeMillis() + 5));
+        Thread.sleep(20);
+        assertTrue(cache.markUsed("nonce", System.currentTimeMillis() + 60000));
+        assertFalse(cache.markUsed("nonce", System.currentTimeMillis() + 60000));
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Identifiers whose String hash codes collide are spread over the shards.
+     */
+    @Test
+    public void colliding_hash_codes_are_spread() {
+        // "Aa" and "BB" have the same hashCode, so do all strings built from them
+        int count = 1 << 10;
+        ReplayCache cache = new ReplayCache(count);
+        long expiresAt = System.currentTimeMillis() + 60000;
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            StringBuilder id = new StringBuilder();
+            for (int bit = 0; bit < 10; bit++) {
+                if ((i & (1 << bit)) == 0) {
+                    id.append("Aa");
+                } else {
+                    id.append("BB");
+                }
+            }
+            if (cache.markUsed(id.toString(), expiresAt)) {
+                added++;
+            }
+        }
+        // With one shard per String hash code, all but the capacity of a single shard would be rejected
+        assertTrue(added > count / 2);
+    }
+}
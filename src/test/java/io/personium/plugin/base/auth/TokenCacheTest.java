@@ -0,0 +1,53 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.auth;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+/**
+ * Unit tests of TokenCache.
+ */
+public class TokenCacheTest {
+
+    /**
+     * Modifying a returned result, including its nested arrays, does not affect later results.
+     * @throws Exception unexpected
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void results_are_deep_copies() throws Exception {
+        long exp = System.currentTimeMillis() / 1000 + 3600;
+        String payload = "{\"sub\":\"alice\",\"aud\":[\"x\"],\"exp\":" + exp + "}";
+        String segment = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        JSONObject first = AuthPluginUtils.tokenToJSON(segment);
+        ((JSONArray) first.get("aud")).add("evil");
+        first.put("sub", "admin");
+        JSONObject second = AuthPluginUtils.tokenToJSON(segment);
+        assertEquals("alice", second.get("sub"));
+        assertEquals(Arrays.asList("x"), second.get("aud"));
+    }
+}
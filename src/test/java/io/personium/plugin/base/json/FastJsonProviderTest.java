@@ -0,0 +1,222 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Test;
+
+/**
+ * Conformance tests of FastJsonProvider against the json-simple parser.
+ */
+public class FastJsonProviderTest {
+
+    private static final int ROUNDS = 2000;
+    private static final String STRING_CHARS = "abcXYZ019 _-/\\\"\b\f\n\r\t\u00e9\u3042\ud83d\ude00";
+
+    private final FastJsonProvider provider = new FastJsonProvider();
+
+    /**
+     * Random documents parse to the same values as with json-simple, from bytes and from a stream
+     * which returns a few bytes per read.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void random_documents_match_json_simple() throws Exception {
+        Random random = new Random(19);
+        for (int i = 0; i < ROUNDS; i++) {
+            String json = value(random, 0);
+            Object expected = new JSONParser().parse(json);
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            assertEquals(json, expected, provider.parse(bytes, 0, bytes.length));
+            assertEquals(json, expected, provider.parse(new TrickleInputStream(bytes, random.nextLong())));
+        }
+    }
+
+    /**
+     * Every truncation of a document which json-simple rejects is rejected too, from bytes and from a stream.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void truncated_documents_are_rejected_like_json_simple() throws Exception {
+        Random random = new Random(20);
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            byte[] bytes = value(random, 0).getBytes(StandardCharsets.UTF_8);
+            for (int len = 0; len < bytes.length; len++) {
+                String prefix = new String(bytes, 0, len, StandardCharsets.UTF_8);
+                Object expected;
+                try {
+                    expected = new JSONParser().parse(prefix);
+                } catch (ParseException e) {
+                    assertRejected(Arrays.copyOf(bytes, len), random.nextLong());
+                    continue;
+                }
+                byte[] truncated = prefix.getBytes(StandardCharsets.UTF_8);
+                assertEquals(prefix, expected, provider.parse(truncated, 0, truncated.length));
+            }
+        }
+    }
+
+    /**
+     * A string token longer than the read buffer is parsed from a stream.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void token_longer_than_buffer_is_parsed_from_stream() throws Exception {
+        char[] chars = new char[300 * 1024];
+        Arrays.fill(chars, 'x');
+        String json = "{\"k\":\"" + new String(chars) + "\",\"n\":[1,2.5,\"\\u3042\"]}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        assertEquals(new JSONParser().parse(json), provider.parse(new ByteArrayInputStream(bytes)));
+    }
+
+    private void assertRejected(byte[] bytes, long seed) throws IOException {
+        String label = new String(bytes, StandardCharsets.UTF_8);
+        try {
+            provider.parse(bytes, 0, bytes.length);
+            fail("Accepted " + label);
+        } catch (ParseException e) {
+            assertEquals(label, true, e.getPosition() <= bytes.length);
+        }
+        try {
+            provider.parse(new TrickleInputStream(bytes, seed));
+            fail("Accepted from stream " + label);
+        } catch (ParseException e) {
+            assertEquals(label, true, e.getPosition() <= bytes.length);
+        }
+    }
+
+    private static String value(Random random, int depth) {
+        int kind = random.nextInt(8);
+        if (depth > 3 && kind < 2) {
+            kind += 2;
+        }
+        StringBuilder sb = new StringBuilder();
+        switch (kind) {
+        case 0:
+            sb.append('{').append(space(random));
+            int members = random.nextInt(4);
+            for (int i = 0; i < members; i++) {
+                if (i > 0) {
+                    sb.append(',').append(space(random));
+                }
+                sb.append(string(random)).append(space(random)).append(':').append(space(random))
+                        .append(value(random, depth + 1)).append(space(random));
+            }
+            return sb.append('}').toString();
+        case 1:
+            sb.append('[').append(space(random));
+            int elements = random.nextInt(4);
+            for (int i = 0; i < elements; i++) {
+                if (i > 0) {
+                    sb.append(',').append(space(random));
+                }
+                sb.append(value(random, depth + 1)).append(space(random));
+            }
+            return sb.append(']').toString();
+        case 2:
+        case 3:
+            return string(random);
+        case 4:
+            return Long.toString(random.nextLong() >> random.nextInt(64));
+        case 5:
+            return Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10));
+        case 6:
+            return random.nextBoolean() + "";
+        default:
+            return "null";
+        }
+    }
+
+    private static String string(Random random) {
+        StringBuilder sb = new StringBuilder("\"");
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            char c = STRING_CHARS.charAt(random.nextInt(STRING_CHARS.length()));
+            if (Character.isHighSurrogate(c)) {
+                c = 'h';
+            } else if (Character.isLowSurrogate(c)) {
+                sb.append("\ud83d\ude00");
+                continue;
+            }
+            switch (c) {
+            case '"':
+            case '\\':
+                sb.append('\\').append(c);
+                break;
+            case '/':
+                sb.append("\\/");
+                break;
+            case '\b':
+                sb.append("\\b");
+                break;
+            case '\f':
+                sb.append("\\f");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (random.nextInt(8) == 0) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String space(Random random) {
+        String[] spaces = {"", "", " ", "\n", "\t ", "\r\n"};
+        return spaces[random.nextInt(spaces.length)];
+    }
+
+    /**
+     * Stream which returns between one and seven bytes per read.
+     */
+    private static final class TrickleInputStream extends FilterInputStream {
+        private final Random random;
+
+        TrickleInputStream(byte[] bytes, long seed) {
+            super(new ByteArrayInputStream(bytes));
+            this.random = new Random(seed);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1 + random.nextInt(7)));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests of ApacheHttpTransport.
+ */
+public class ApacheHttpTransportTest {
+
+    private HttpServer server;
+    private final List<CacheResponseStatus> statuses = new CopyOnWriteArrayList<>();
+    private final List<Long> serverTimes = new CopyOnWriteArrayList<>();
+    private final HttpMetricsSink sink = new HttpMetricsSink() {
+        @Override
+        public void recordPhase(String host, HttpMetrics.Phase phase, long nanos) {
+            if (phase == HttpMetrics.Phase.SERVER) {
+                serverTimes.add(nanos);
+            }
+        }
+
+        @Override
+        public void recordCacheStatus(String host, CacheResponseStatus status) {
+            statuses.add(status);
+        }
+
+        @Override
+        public void recordError(String host, String errorType) {
+        }
+    };
+
+    /**
+     * Starts a server with a cacheable document and registers the sink.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/cached.json", exchange -> {
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=100");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        HttpMetrics.addSink(sink);
+    }
+
+    /**
+     * Removes the sink and stops the server.
+     */
+    @After
+    public void tearDown() {
+        HttpMetrics.removeSink(sink);
+        server.stop(0);
+        HttpClientPool.shutdown();
+    }
+
+    /**
+     * A response served from the cache records no server time.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void cache_hit_records_no_server_time() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/cached.json";
+        ApacheHttpTransport transport = new ApacheHttpTransport();
+        transport.getJSON(url, false);
+        transport.getJSON(url, false);
+        assertEquals(CacheResponseStatus.CACHE_MISS, statuses.get(0));
+        assertEquals(CacheResponseStatus.CACHE_HIT, statuses.get(1));
+        assertEquals(1, serverTimes.size());
+    }
+}
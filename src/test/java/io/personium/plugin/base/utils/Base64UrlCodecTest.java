@@ -0,0 +1,112 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+
+/**
+ * Unit tests of Base64UrlCodec, compared with commons-codec on random input.
+ */
+public class Base64UrlCodecTest {
+
+    private static final int ROUNDS = 2000;
+    private static final String URL_SAFE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    private static final String ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_+/= \\n!.";
+
+    /**
+     * Encoding matches the URL safe encoding of commons-codec, and strict decoding restores the bytes.
+     */
+    @Test
+    public void encode_and_strict_decode_match_commons_codec() {
+        Random random = new Random(15);
+        for (int i = 0; i < ROUNDS; i++) {
+            byte[] bytes = new byte[random.nextInt(64)];
+            random.nextBytes(bytes);
+            String encoded = Base64UrlCodec.encodeToString(bytes);
+            assertEquals(Base64.encodeBase64URLSafeString(bytes), encoded);
+            assertArrayEquals(bytes, decodeStrict(encoded));
+        }
+    }
+
+    /**
+     * Lenient decoding of arbitrary strings matches commons-codec.
+     */
+    @Test
+    public void lenient_decode_matches_commons_codec() {
+        Random random = new Random(16);
+        for (int i = 0; i < ROUNDS; i++) {
+            char[] chars = new char[random.nextInt(40)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            String src = new String(chars);
+            assertArrayEquals(src, Base64.decodeBase64(src), Base64UrlCodec.decode(src));
+        }
+    }
+
+    /**
+     * Strict decoding rejects padding, the standard alphabet, a dangling character and non-zero trailing bits.
+     */
+    @Test
+    public void strict_decode_rejects_non_canonical_input() {
+        Random random = new Random(17);
+        for (int i = 0; i < ROUNDS; i++) {
+            byte[] bytes = new byte[1 + random.nextInt(64)];
+            random.nextBytes(bytes);
+            String encoded = Base64UrlCodec.encodeToString(bytes);
+            assertRejected("+AAA" + encoded);
+            assertRejected("/AAA" + encoded);
+            int tail = bytes.length % 3;
+            if (tail == 0) {
+                assertRejected(encoded + "A");
+                continue;
+            }
+            assertRejected(Base64.encodeBase64String(bytes).replace('+', '-').replace('/', '_'));
+            // The last character carries 2 (one byte tail) or 4 (two byte tail) bits of data
+            int unusedMask = 0x03;
+            if (tail == 1) {
+                unusedMask = 0x0F;
+            }
+            int value = URL_SAFE.indexOf(encoded.charAt(encoded.length() - 1));
+            char tampered = URL_SAFE.charAt(value | 1 + random.nextInt(unusedMask));
+            assertRejected(encoded.substring(0, encoded.length() - 1) + tampered);
+        }
+    }
+
+    private static byte[] decodeStrict(String src) {
+        byte[] out = new byte[Base64UrlCodec.maxDecodedLength(src.length())];
+        int written = Base64UrlCodec.decodeStrict(src, 0, src.length(), out, 0);
+        assertTrue(src, written >= 0);
+        return Arrays.copyOf(out, written);
+    }
+
+    private static void assertRejected(String src) {
+        byte[] out = new byte[Base64UrlCodec.maxDecodedLength(src.length())];
+        assertTrue(src, Base64UrlCodec.decodeStrict(src, 0, src.length(), out, 0) < 0);
+    }
+}
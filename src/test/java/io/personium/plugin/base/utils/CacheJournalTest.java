@@ -0,0 +1,134 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of CacheJournal.
+ */
+public class CacheJournalTest {
+
+    /** Directory of the journal. */
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    /**
+     * Keys longer than 65535 UTF-8 bytes and keys outside the BMP survive a restart.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void long_and_non_bmp_keys_are_restored() throws Exception {
+        char[] chars = new char[70000];
+        Arrays.fill(chars, 'あ');
+        String longKey = "https://example.com:443/" + new String(chars);
+        String emojiKey = "https://example.com:443/😀";
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), Long.MAX_VALUE)) {
+            journal.load();
+            journal.appendPut(longKey, entry("long"));
+            journal.appendPut(emojiKey, entry("emoji"));
+        }
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), Long.MAX_VALUE)) {
+            Map<String, HttpCacheEntry> restored = journal.load();
+            assertEquals(2, restored.size());
+            assertEquals("long", body(restored.get(longKey)));
+            assertEquals("emoji", body(restored.get(emojiKey)));
+        }
+    }
+
+    /**
+     * Records appended while a compaction writes its snapshot are kept in the compacted journal.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void compaction_keeps_records_appended_meanwhile() throws Exception {
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), Long.MAX_VALUE)) {
+            journal.load();
+            journal.appendPut("a", entry("a"));
+            journal.appendPut("b", entry("b"));
+            journal.appendRemove("b");
+            Map<String, HttpCacheEntry> snapshot = new LinkedHashMap<>();
+            snapshot.put("a", entry("a"));
+            journal.beginCompaction();
+            journal.appendPut("c", entry("c"));
+            journal.compact(snapshot);
+            journal.appendPut("d", entry("d"));
+        }
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), Long.MAX_VALUE)) {
+            Map<String, HttpCacheEntry> restored = journal.load();
+            assertEquals(Arrays.asList("a", "c", "d"), Arrays.asList(restored.keySet().toArray()));
+        }
+        assertEquals(false, new File(dir.getRoot(), CacheJournal.FILE_NAME + ".tmp").exists());
+    }
+
+    /**
+     * A record claiming a body larger than the file is treated as torn instead of being allocated.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void oversized_body_length_is_treated_as_torn() throws Exception {
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), 1024 * 1024)) {
+            journal.load();
+            journal.appendPut("a", entry("a"));
+        }
+        File file = new File(dir.getRoot(), CacheJournal.FILE_NAME);
+        long validLength = file.length();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+            out.writeByte(1);
+            out.writeInt(1);
+            out.writeByte('b');
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), 1024 * 1024)) {
+            Map<String, HttpCacheEntry> restored = journal.load();
+            assertEquals(Arrays.asList("a"), Arrays.asList(restored.keySet().toArray()));
+        }
+        assertEquals(validLength, file.length());
+    }
+
+    private static HttpCacheEntry entry(String body) {
+        Date now = new Date();
+        return new HttpCacheEntry(now, now, new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"), new Header[0],
+                new HeapResource(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String body(HttpCacheEntry entry) throws Exception {
+        try (InputStream in = entry.getResource().getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
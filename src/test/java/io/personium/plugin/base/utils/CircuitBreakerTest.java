@@ -0,0 +1,147 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Unit tests of CircuitBreaker.
+ */
+public class CircuitBreakerTest {
+
+    private static final long OPEN_DURATION = 50;
+
+    private CircuitBreaker breaker;
+
+    /**
+     * Shortens the open duration and takes the breaker of a host used by no other test.
+     */
+    @Before
+    public void setUp() {
+        PluginConfig.set(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD, "3");
+        PluginConfig.set(PluginConfig.Http.BREAKER_OPEN_DURATION, String.valueOf(OPEN_DURATION));
+        breaker = CircuitBreaker.forHost("breaker.test");
+        breaker.recordSuccess();
+    }
+
+    /**
+     * Restores the settings.
+     */
+    @After
+    public void tearDown() {
+        breaker.recordSuccess();
+        PluginConfig.set(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD, "");
+        PluginConfig.set(PluginConfig.Http.BREAKER_OPEN_DURATION, "");
+    }
+
+    /**
+     * Breakers are shared per host regardless of the case of the name.
+     */
+    @Test
+    public void breaker_is_shared_per_host() {
+        assertTrue(breaker == CircuitBreaker.forHost("Breaker.TEST"));
+    }
+
+    /**
+     * The breaker opens after the configured number of consecutive failures, and a success in between resets the count.
+     */
+    @Test
+    public void opens_after_consecutive_failures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    /**
+     * After the open duration a single trial is let through, and its success closes the breaker.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void successful_trial_closes() throws Exception {
+        open();
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    /**
+     * A failed trial opens the breaker again at once.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void failed_trial_reopens() throws Exception {
+        open();
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    /**
+     * An inconclusive trial lets the next caller run the trial.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void inconclusive_trial_releases_the_trial() throws Exception {
+        open();
+        assertTrue(breaker.allowRequest());
+        breaker.recordInconclusive();
+        assertTrue(breaker.allowRequest());
+    }
+
+    /**
+     * A threshold of 0 disables the breaker.
+     */
+    @Test
+    public void zero_threshold_never_opens() {
+        PluginConfig.set(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD, "0");
+        for (int i = 0; i < 10; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Opens the breaker and waits until the open duration has elapsed.
+     */
+    private void open() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(OPEN_DURATION * 2);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Test;
+
+/**
+ * Unit tests of copying shared JSON results.
+ */
+public class CopyJSONTest {
+
+    private static JSONObject jwks() {
+        return (JSONObject) JSONValue.parse("{\"keys\":[{\"kid\":\"a\",\"x5c\":[\"c1\"]}],\"n\":1}");
+    }
+
+    /**
+     * Nested objects and arrays are copied.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void copyJSON_copies_nested_values() {
+        JSONObject src = jwks();
+        JSONObject copy = PluginUtils.copyJSON(src);
+        assertEquals(src, copy);
+        JSONArray keys = (JSONArray) copy.get("keys");
+        assertNotSame(src.get("keys"), keys);
+        ((JSONObject) keys.get(0)).put("kid", "evil");
+        keys.add(new JSONObject());
+        assertEquals(jwks(), src);
+    }
+
+    /**
+     * Callers of a coalesced call cannot see changes made by another caller.
+     * @throws Exception unexpected
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void singleFlight_callers_get_independent_copies() throws Exception {
+        SingleFlight<String, JSONObject> flight = new SingleFlight<>(PluginUtils::copyJSON);
+        CountDownLatch joined = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<JSONObject> waiter = executor.submit(() -> {
+                joined.await();
+                return flight.execute("k", CopyJSONTest::jwks);
+            });
+            JSONObject leader = flight.execute("k", () -> {
+                joined.countDown();
+                Thread.sleep(200);
+                return jwks();
+            });
+            ((JSONArray) leader.get("keys")).clear();
+            assertEquals(jwks(), waiter.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
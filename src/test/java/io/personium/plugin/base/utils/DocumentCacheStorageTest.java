@@ -0,0 +1,75 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of DocumentCacheStorage.
+ */
+public class DocumentCacheStorageTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+    private static final long POLL_MILLIS = 10;
+
+    /** Directory of the journal. */
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    /**
+     * The journal is restored in background, and an entry removed before or while it is replayed is not restored.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void restore_does_not_resurrect_removed_entries() throws Exception {
+        try (CacheJournal journal = new CacheJournal(dir.getRoot(), Long.MAX_VALUE)) {
+            journal.load();
+            journal.appendPut("a", entry("a"));
+            journal.appendPut("b", entry("b"));
+        }
+        DocumentCacheStorage storage = new DocumentCacheStorage(100, 1024 * 1024, 60, 86400, 0);
+        storage.enablePersistence(dir.getRoot(), Long.MAX_VALUE);
+        storage.removeEntry("b");
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (storage.getEntry("a") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        assertNotNull(storage.getEntry("a"));
+        assertNull(storage.getEntry("b"));
+        storage.disablePersistence();
+    }
+
+    private static HttpCacheEntry entry(String body) {
+        Date now = new Date();
+        return new HttpCacheEntry(now, now, new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"), new Header[0],
+                new HeapResource(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.ClientProtocolException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Unit tests of the status handling, retries and circuit breaking of {@link PluginUtils#getHttpJSON(String)}.
+ */
+public class GetHttpJSONTest {
+
+    private static final String HOST = "127.0.0.1";
+
+    private HttpServer server;
+    private String base;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Starts a server and shortens the backoff.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(HOST, 0), 0);
+        base = "http://" + HOST + ":" + server.getAddress().getPort();
+        server.createContext("/flaky.json", exchange -> {
+            if (requests.incrementAndGet() <= 2) {
+                send(exchange, 503, "<html>Service Unavailable</html>");
+            } else {
+                send(exchange, 200, "{\"ok\":true}");
+            }
+        });
+        server.createContext("/missing.json", exchange -> {
+            requests.incrementAndGet();
+            send(exchange, 404, "{\"error\":\"not_found\"}");
+        });
+        server.createContext("/limited.json", exchange -> {
+            requests.incrementAndGet();
+            send(exchange, 429, "{\"error\":\"slow_down\"}");
+        });
+        server.start();
+        PluginConfig.set(PluginConfig.Http.RETRY_BASE_DELAY, "1");
+        PluginConfig.set(PluginConfig.Http.RETRY_MAX_DELAY, "1");
+        CircuitBreaker.forHost(HOST).recordSuccess();
+    }
+
+    /**
+     * Restores the settings and stops the server.
+     */
+    @After
+    public void tearDown() {
+        PluginConfig.set(PluginConfig.Http.RETRY_BASE_DELAY, "");
+        PluginConfig.set(PluginConfig.Http.RETRY_MAX_DELAY, "");
+        PluginConfig.set(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD, "");
+        CircuitBreaker.forHost(HOST).recordSuccess();
+        server.stop(0);
+        HttpClientPool.shutdown();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    /**
+     * A 5xx response is retried with backoff until the server recovers.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void server_error_is_retried() throws Exception {
+        assertEquals(Boolean.TRUE, PluginUtils.getHttpJSON(base + "/flaky.json").get("ok"));
+        assertEquals(3, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, CircuitBreaker.forHost(HOST).getState());
+    }
+
+    /**
+     * A 4xx response with a JSON error body is not returned as the document, and is not retried.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void client_error_is_not_returned_as_document() throws Exception {
+        try {
+            PluginUtils.getHttpJSON(base + "/missing.json");
+            fail();
+        } catch (ClientProtocolException e) {
+            assertEquals(1, requests.get());
+        }
+    }
+
+    /**
+     * 429 responses count as failures of the host and open its circuit.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void too_many_requests_opens_circuit() throws Exception {
+        PluginConfig.set(PluginConfig.Http.BREAKER_FAILURE_THRESHOLD, "2");
+        try {
+            PluginUtils.getHttpJSON(base + "/limited.json");
+            fail();
+        } catch (HttpStatusException e) {
+            assertEquals(429, e.getStatusCode());
+        }
+        assertEquals(2, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, CircuitBreaker.forHost(HOST).getState());
+        try {
+            PluginUtils.getHttpJSON(base + "/limited.json");
+            fail();
+        } catch (CircuitOpenException e) {
+            assertEquals(2, requests.get());
+        }
+    }
+}
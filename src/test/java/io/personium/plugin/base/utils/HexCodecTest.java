@@ -0,0 +1,98 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of HexCodec through PluginUtils.byteArray2HexString and hexString2ByteArray.
+ */
+public class HexCodecTest {
+
+    private static final int ROUNDS = 2000;
+
+    /**
+     * Encoding gives the same string as the previous implementation of byteArray2HexString,
+     * and decoding that string in either case restores the bytes.
+     */
+    @Test
+    public void round_trip_matches_previous_implementation() {
+        Random random = new Random(17);
+        for (int i = 0; i < ROUNDS; i++) {
+            byte[] bytes = new byte[random.nextInt(64)];
+            random.nextBytes(bytes);
+            String hex = PluginUtils.byteArray2HexString(bytes);
+            assertEquals(legacyByteArray2HexString(bytes), hex);
+            assertArrayEquals(bytes, PluginUtils.hexString2ByteArray(hex));
+            assertArrayEquals(bytes, PluginUtils.hexString2ByteArray(hex.toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * An odd number of digits is rejected.
+     */
+    @Test
+    public void odd_length_is_rejected() {
+        assertRejected("a");
+        assertRejected("abc");
+        assertRejected("0123456789abcdef0");
+    }
+
+    /**
+     * Characters other than hexadecimal digits are rejected, wherever they appear.
+     */
+    @Test
+    public void invalid_characters_are_rejected() {
+        assertRejected("0g");
+        assertRejected("g0");
+        assertRejected("00 1");
+        assertRejected("-1");
+        assertRejected("0x");
+        assertRejected("٠١");
+        assertRejected("ab０１");
+    }
+
+    private static void assertRejected(String hex) {
+        try {
+            PluginUtils.hexString2ByteArray(hex);
+            fail("Accepted " + hex);
+        } catch (IllegalArgumentException e) {
+            assertEquals(true, e.getMessage() != null);
+        }
+    }
+
+    /**
+     * byteArray2HexString before HexCodec was introduced.
+     */
+    private static String legacyByteArray2HexString(final byte[] input) {
+        StringBuffer buff = new StringBuffer();
+        int count = input.length;
+        for (int i = 0; i < count; i++) {
+            buff.append(Integer.toHexString((input[i] >> 4) & 0x0F));
+            buff.append(Integer.toHexString(input[i] & 0x0F));
+        }
+        return buff.toString();
+    }
+}
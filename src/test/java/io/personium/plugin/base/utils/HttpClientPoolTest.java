@@ -0,0 +1,108 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Unit tests of HttpClientPool.
+ */
+public class HttpClientPoolTest {
+
+    private HttpServer server;
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+
+    /**
+     * Starts a server which answers after a delay.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            requestReceived.countDown();
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+        HttpClientPool.shutdown();
+    }
+
+    /**
+     * A request running when the configuration changes completes on the replaced client.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void inflight_request_survives_rebuild() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+        CloseableHttpClient before = HttpClientPool.getClient();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> inflight = executor.submit(() -> {
+                try (CloseableHttpResponse res = before.execute(new HttpGet(url))) {
+                    return EntityUtils.toString(res.getEntity());
+                }
+            });
+            assertEquals(true, requestReceived.await(5, TimeUnit.SECONDS));
+            PluginConfig.set(PluginConfig.Http.POOL_MAX_TOTAL,
+                    String.valueOf(PluginConfig.getInt(PluginConfig.Http.POOL_MAX_TOTAL, 0) + 1));
+            assertNotSame(before, HttpClientPool.getClient());
+            assertEquals("{\"ok\":true}", inflight.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
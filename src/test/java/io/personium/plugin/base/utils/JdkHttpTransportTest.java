@@ -0,0 +1,111 @@
+/**
+ * Personium
+ * Copyright 2026 Personium Project Authors
+ * - FUJITSU LIMITED
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.personium.plugin.base.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.personium.plugin.base.PluginConfig;
+
+/**
+ * Unit tests of JdkHttpTransport.
+ */
+public class JdkHttpTransportTest {
+
+    private HttpServer proxy;
+    private final AtomicReference<String> proxyAuthorization = new AtomicReference<>();
+
+    /**
+     * Starts a server acting as a forward proxy and points the configuration to it.
+     * @throws Exception unexpected
+     */
+    @Before
+    public void setUp() throws Exception {
+        proxy = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        proxy.createContext("/", exchange -> {
+            proxyAuthorization.set(exchange.getRequestHeaders().getFirst("Proxy-Authorization"));
+            if (exchange.getRequestURI().getPath().endsWith("/unavailable.json")) {
+                byte[] html = "<html>Service Unavailable</html>".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(503, html.length);
+                exchange.getResponseBody().write(html);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        proxy.start();
+        PluginConfig.set(PluginConfig.Proxy.HOST_NAME, "127.0.0.1");
+        PluginConfig.set(PluginConfig.Proxy.PORT_NUMBER, String.valueOf(proxy.getAddress().getPort()));
+        PluginConfig.set(PluginConfig.Proxy.USER_NAME, "user");
+        PluginConfig.set(PluginConfig.Proxy.USER_PSWD, "pswd");
+    }
+
+    /**
+     * Removes the proxy settings and stops the server.
+     */
+    @After
+    public void tearDown() {
+        PluginConfig.set(PluginConfig.Proxy.HOST_NAME, "");
+        PluginConfig.set(PluginConfig.Proxy.USER_NAME, "");
+        PluginConfig.set(PluginConfig.Proxy.USER_PSWD, "");
+        proxy.stop(0);
+        HttpClientPool.shutdown();
+    }
+
+    /**
+     * Proxy credentials are sent on the first request without waiting for a challenge.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void proxy_credentials_are_sent_preemptively() throws Exception {
+        JdkHttpTransport transport = new JdkHttpTransport();
+        assertEquals(Boolean.TRUE, transport.getJSON("http://plugin.test/doc.json", false).get("ok"));
+        String expected = "Basic " + Base64.getEncoder().encodeToString(
+                "user:pswd".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, proxyAuthorization.get());
+    }
+
+    /**
+     * A 5xx response is reported by its status instead of failing to parse the error page.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void server_error_throws_status_exception() throws Exception {
+        JdkHttpTransport transport = new JdkHttpTransport();
+        try {
+            transport.getJSON("http://plugin.test/unavailable.json", false);
+            fail();
+        } catch (HttpStatusException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+    }
+}